@@ -0,0 +1,273 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annotation processor that generates a {@code <ModelClass>$$SodaBinder} implementation of
+ * com.socrata.android.client.SodaEntityBinder for every class annotated with @SodaEntity.
+ * Generated binders instantiate models and assign fields directly or through their setters so the
+ * JsonAdapter doesn't need reflection to bind rows.
+ * Fields that are private and have no accessible setter are left to the reflective binding of the JsonAdapter.
+ */
+@SupportedAnnotationTypes(SodaEntityProcessor.SODA_ENTITY)
+public class SodaEntityProcessor extends AbstractProcessor {
+
+    /**
+     * Fully qualified name of the @SodaEntity annotation
+     */
+    static final String SODA_ENTITY = "com.socrata.android.client.SodaEntity";
+
+    /**
+     * Fully qualified name of the @SodaField annotation
+     */
+    private static final String SODA_FIELD = "com.socrata.android.client.SodaField";
+
+    /**
+     * Suffix appended to the model class name, must match SodaEntityBinders#BINDER_SUFFIX
+     */
+    private static final String BINDER_SUFFIX = "$$SodaBinder";
+
+    /**
+     * @see AbstractProcessor#getSupportedSourceVersion()
+     */
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * @see AbstractProcessor#process(java.util.Set, javax.annotation.processing.RoundEnvironment)
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS) {
+                    process((TypeElement) element);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Generates the binder for a model class if it can be instantiated without reflection
+     *
+     * @param model the model class
+     */
+    private void process(TypeElement model) {
+        if (!isAccessible(model) || model.getModifiers().contains(Modifier.ABSTRACT) || !hasAccessibleDefaultConstructor(model)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    String.format("%s can't be instantiated from its package, it will be bound through reflection", model.getQualifiedName()), model);
+            return;
+        }
+        List<String> sodaFields = new ArrayList<String>();
+        List<String> assignments = new ArrayList<String>();
+        for (VariableElement field : ElementFilter.fieldsIn(model.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+                continue;
+            }
+            String value = convert(field.asType(), "value");
+            String assignment = null;
+            if (!modifiers.contains(Modifier.PRIVATE)) {
+                assignment = String.format("entity.%s = %s;", field.getSimpleName(), value);
+            } else {
+                ExecutableElement setter = findSetter(model, field);
+                if (setter != null) {
+                    assignment = String.format("entity.%s(%s);", setter.getSimpleName(), value);
+                }
+            }
+            if (assignment != null) {
+                sodaFields.add(getSodaFieldName(field));
+                assignments.add(assignment);
+            }
+        }
+        try {
+            write(model, sodaFields, assignments);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, String.format("Unable to write binder: %s", e.getMessage()), model);
+        }
+    }
+
+    /**
+     * Writes the binder source file
+     */
+    private void write(TypeElement model, List<String> sodaFields, List<String> assignments) throws IOException {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(model);
+        String packageName = packageElement.getQualifiedName().toString();
+        String modelName = model.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(model).toString();
+        String binderName = binaryName.substring(packageName.length() == 0 ? 0 : packageName.length() + 1) + BINDER_SUFFIX;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(binaryName + BINDER_SUFFIX, model);
+        Writer writer = file.openWriter();
+        try {
+            if (packageName.length() > 0) {
+                writer.write(String.format("package %s;\n\n", packageName));
+            }
+            writer.write("/**\n * Generated by the SODA annotation processor. Do not modify.\n */\n");
+            writer.write("@SuppressWarnings(\"unchecked\")\n");
+            writer.write(String.format("public final class %s implements com.socrata.android.client.SodaEntityBinder<%s> {\n\n", binderName, modelName));
+            writer.write("    private static final String[] FIELDS = {");
+            for (int i = 0; i < sodaFields.size(); i++) {
+                writer.write(String.format("%s\"%s\"", i == 0 ? "" : ", ", escape(sodaFields.get(i))));
+            }
+            writer.write("};\n\n");
+            writer.write("    @Override\n");
+            writer.write(String.format("    public %s newInstance() {\n        return new %s();\n    }\n\n", modelName, modelName));
+            writer.write("    @Override\n");
+            writer.write("    public int indexOf(String sodaField) {\n");
+            writer.write("        for (int i = 0; i < FIELDS.length; i++) {\n");
+            writer.write("            if (FIELDS[i].equals(sodaField)) {\n                return i;\n            }\n");
+            writer.write("        }\n        return -1;\n    }\n\n");
+            writer.write("    @Override\n");
+            writer.write(String.format("    public void set(%s entity, int index, Object value) {\n", modelName));
+            writer.write("        switch (index) {\n");
+            for (int i = 0; i < assignments.size(); i++) {
+                writer.write(String.format("            case %d:\n                %s\n                break;\n", i, assignments.get(i)));
+            }
+            writer.write("            default:\n                throw new IllegalArgumentException(\"Unknown field index \" + index);\n");
+            writer.write("        }\n    }\n\n}\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * @return the expression that converts an Object expression to the field type
+     */
+    private String convert(TypeMirror type, String expression) {
+        String helpers = "com.socrata.android.client.SodaEntityBinders";
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return String.format("%s.toBoolean(%s)", helpers, expression);
+            case INT:
+                return String.format("%s.toInt(%s)", helpers, expression);
+            case LONG:
+                return String.format("%s.toLong(%s)", helpers, expression);
+            case SHORT:
+                return String.format("%s.toShort(%s)", helpers, expression);
+            case BYTE:
+                return String.format("%s.toByte(%s)", helpers, expression);
+            case DOUBLE:
+                return String.format("%s.toDouble(%s)", helpers, expression);
+            case FLOAT:
+                return String.format("%s.toFloat(%s)", helpers, expression);
+            case CHAR:
+                return String.format("%s.toChar(%s)", helpers, expression);
+            default:
+                return String.format("(%s) %s", processingEnv.getTypeUtils().erasure(type), expression);
+        }
+    }
+
+    /**
+     * @return the non private setter taking the field type as its only argument or null
+     */
+    private ExecutableElement findSetter(TypeElement model, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (ExecutableElement method : ElementFilter.methodsIn(model.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals(setterName)
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && !method.getModifiers().contains(Modifier.STATIC)
+                    && method.getParameters().size() == 1
+                    && processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), field.asType())) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the @SodaField value or the field name when not annotated, same as the JsonAdapter mappings
+     */
+    private String getSodaFieldName(VariableElement field) {
+        for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(SODA_FIELD)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals("value")) {
+                        return String.valueOf(entry.getValue().getValue());
+                    }
+                }
+            }
+        }
+        return field.getSimpleName().toString();
+    }
+
+    /**
+     * @return whether the class and all its enclosing classes are visible from its package and it needs no outer instance
+     */
+    private boolean isAccessible(TypeElement type) {
+        Element current = type;
+        while (current.getKind().isClass() || current.getKind().isInterface()) {
+            TypeElement typeElement = (TypeElement) current;
+            if (typeElement.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (typeElement.getNestingKind() == NestingKind.MEMBER && !typeElement.getModifiers().contains(Modifier.STATIC)) {
+                return false;
+            }
+            if (typeElement.getNestingKind() == NestingKind.LOCAL || typeElement.getNestingKind() == NestingKind.ANONYMOUS) {
+                return false;
+            }
+            current = current.getEnclosingElement();
+        }
+        return true;
+    }
+
+    /**
+     * @return whether the class has a non private no args constructor
+     */
+    private boolean hasAccessibleDefaultConstructor(TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the string escaped to be written as a Java string literal
+     */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.socrata.android.soql.Query;
+import com.socrata.android.ui.map.Aggregate;
+import junit.framework.TestCase;
+
+import static com.socrata.android.soql.clauses.Expression.gt;
+
+/**
+ * Server side aggregation of map viewports
+ */
+public class AggregateTest extends TestCase {
+
+    public void testAggregateQuery() {
+        Query query = new Query("earthquakes", DataTypeModel.class);
+        query.addWhere(gt("magnitude", "3"));
+        Query aggregate = Aggregate.query(query, "lat", "lng", 0.5);
+        assertEquals("earthquakes", aggregate.getDataset());
+        assertEquals(Aggregate.class, aggregate.getMapping());
+        assertEquals("select lat - (lat + 180) % 0.5 + 0.25 as lat_cell, lng - (lng + 180) % 0.5 + 0.25 as lng_cell, count(*) as cell_count " +
+                "where magnitude > 3 group by lat_cell, lng_cell offset 0 limit 1000", aggregate.build());
+    }
+
+    public void testSmallCellsAreRenderedWithoutExponent() {
+        Query aggregate = Aggregate.query(new Query("earthquakes", DataTypeModel.class), "lat", "lng", 360.0 / (1 << 20));
+        assertTrue(aggregate.build().startsWith("select lat - (lat + 180) % 0.00034332275390625 + 0.000171661376953125 as lat_cell"));
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.socrata.android.client.SodaEntity;
+import com.socrata.android.client.SodaField;
+
+/**
+ * Mapping entity for unittest covering each way a generated binder assigns fields
+ */
+@SodaEntity
+public class BinderModel {
+
+    /**
+     * Assigned directly by the binder
+     */
+    int count;
+
+    /**
+     * Assigned through its setter by the binder
+     */
+    @SodaField("full_name")
+    private String name;
+
+    /**
+     * Primitive assigned through its setter by the binder
+     */
+    private boolean active;
+
+    /**
+     * Private without setter, assigned through reflection
+     */
+    private Double score;
+
+    public int getCount() {
+        return count;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+}
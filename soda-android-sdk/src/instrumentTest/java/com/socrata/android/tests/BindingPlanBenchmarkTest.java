@@ -0,0 +1,100 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import android.util.Log;
+import com.socrata.android.client.DataTypesMapper;
+import com.socrata.android.client.JsonAdapter;
+import com.socrata.android.client.SodaEntity;
+import com.socrata.android.client.SodaField;
+import junit.framework.TestCase;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per row decoding cost of reflective field lookup versus precompiled binding plans.
+ * Results are logged under the "socrata" tag.
+ */
+public class BindingPlanBenchmarkTest extends TestCase {
+
+    private static final int ROWS = 2000;
+
+    private static final String fieldsJson = "[\"phone\",\":updated_at\",\"percent\",\"datetimewtimezone\",\"plaintext\",\"location\",\"star\",\"number\",\"linkeddataset\",\"photo\",\"formattedtext\",\"url\",\"document\",\"multiplechoice\",\"flag\",\"email\",\"checkbox\",\"money\",\":id\",\":created_at\",\"datetime\"]";
+
+    private static final String typesJson = "[\"phone\",\"meta_data\",\"percent\",\"date\",\"text\",\"location\",\"stars\",\"number\",\"dataset_link\",\"photo\",\"html\",\"url\",\"document\",\"drop_down_list\",\"flag\",\"email\",\"checkbox\",\"money\",\"meta_data\",\"meta_data\",\"calendar_date\"]";
+
+    public void testBindingPlanPerRowCost() throws Exception {
+        JSONObject row = new JSONObject(DataTypeConversionTest.json);
+        DataTypesMapper dataTypesMapper = new DataTypesMapper();
+        Map<String, String> fieldsTypesMap = new HashMap<String, String>();
+        JSONArray fields = new JSONArray(fieldsJson);
+        JSONArray types = new JSONArray(typesJson);
+        for (int i = 0; i < fields.length(); i++) {
+            fieldsTypesMap.put(fields.optString(i), types.optString(i));
+        }
+        Map<String, Field> fieldMappings = new HashMap<String, Field>();
+        for (Field field : DataTypeModel.class.getDeclaredFields()) {
+            field.setAccessible(true);
+            fieldMappings.put(field.isAnnotationPresent(SodaField.class) ? field.getAnnotation(SodaField.class).value() : field.getName(), field);
+        }
+        JsonAdapter<DataTypeModel> jsonAdapter = new JsonAdapter<DataTypeModel>(DataTypeModel.class, dataTypesMapper);
+        jsonAdapter.addFieldMappings(fieldsJson, typesJson);
+
+        // warm up both paths
+        for (int i = 0; i < ROWS / 10; i++) {
+            reflectiveFromJsonObject(row, dataTypesMapper, fieldsTypesMap, fieldMappings);
+            jsonAdapter.fromJsonObject(row);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            reflectiveFromJsonObject(row, dataTypesMapper, fieldsTypesMap, fieldMappings);
+        }
+        long reflective = (System.nanoTime() - start) / ROWS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            assertNotNull(jsonAdapter.fromJsonObject(row));
+        }
+        long planned = (System.nanoTime() - start) / ROWS;
+
+        Log.i("socrata", String.format("Per row decoding cost: reflective lookup %d ns, binding plan %d ns", reflective, planned));
+    }
+
+    /**
+     * The per row field resolution JsonAdapter performed before binding plans, kept as the benchmark baseline
+     */
+    private static DataTypeModel reflectiveFromJsonObject(JSONObject json, DataTypesMapper dataTypesMapper, Map<String, String> fieldsTypesMap, Map<String, Field> fieldMappings) throws Exception {
+        if (!DataTypeModel.class.isAnnotationPresent(SodaEntity.class)) {
+            throw new AssertionError("Target is not annotated with @SodaEntity");
+        }
+        DataTypeModel model = DataTypeModel.class.newInstance();
+        for (Map.Entry<String, String> fieldTypeEntry : fieldsTypesMap.entrySet()) {
+            String field = fieldTypeEntry.getKey();
+            String type = fieldTypeEntry.getValue();
+            Field targetField = fieldMappings.get(field);
+            if (json.has(field) && targetField != null) {
+                Object jsonValue = json.opt(field);
+                if (jsonValue != null) {
+                    targetField.set(model, dataTypesMapper.getValue(targetField, type, jsonValue));
+                }
+            }
+        }
+        return model;
+    }
+
+}
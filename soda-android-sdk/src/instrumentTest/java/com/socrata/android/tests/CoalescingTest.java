@@ -0,0 +1,164 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.socrata.android.client.Callback;
+import com.socrata.android.client.RequestHandle;
+import com.socrata.android.client.Response;
+import com.socrata.android.soql.Query;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.socrata.android.soql.clauses.Expression.*;
+
+/**
+ * Identical requests in flight sharing a single download
+ */
+public class CoalescingTest extends TestCase {
+
+    private static class ResultCallback implements Callback<List<DataTypeModel>> {
+
+        private final List<Response<List<DataTypeModel>>> responses = new ArrayList<Response<List<DataTypeModel>>>();
+
+        @Override
+        public void onResults(Response<List<DataTypeModel>> response) {
+            responses.add(response);
+        }
+    }
+
+    private TestConsumer consumer;
+
+    private Query query;
+
+    @Override
+    protected void setUp() throws Exception {
+        consumer = new TestConsumer();
+        consumer.getTestHttpClient().setFields("[\"number\"]", "[\"number\"]");
+        consumer.getTestHttpClient().setResponse(200, "[{\"number\" : \"1\"}, {\"number\" : \"2\"}]");
+        query = new Query("earthquakes", DataTypeModel.class);
+    }
+
+    public void testIdenticalRequestsShareOneDownload() throws Exception {
+        ResultCallback first = new ResultCallback();
+        ResultCallback second = new ResultCallback();
+        consumer.getObjects(query, first);
+        consumer.getObjects(query, second);
+        assertEquals(1, consumer.getPendingCount());
+        assertEquals(1, consumer.getCoalescedRequestCount());
+
+        consumer.runPending();
+        assertEquals(1, consumer.getTestHttpClient().getRequests().size());
+        assertEquals(1, first.responses.size());
+        assertEquals(1, second.responses.size());
+        assertEquals(2, first.responses.get(0).getEntity().size());
+        assertEquals(Integer.valueOf(2), second.responses.get(0).getEntity().get(1).getNumber());
+    }
+
+    public void testEquivalentQueriesShareOneDownload() throws Exception {
+        Query reordered = new Query("earthquakes", DataTypeModel.class);
+        query.addWhere(eq(column("region"), literal("Washington")));
+        query.addWhere(gt(column("magnitude"), literal(3)));
+        reordered.addWhere(gt(column("magnitude"), literal(3)));
+        reordered.addWhere(eq(column("region"), literal("Washington")));
+        consumer.getObjects(query, new ResultCallback());
+        consumer.getObjects(reordered, new ResultCallback());
+        assertEquals(1, consumer.getPendingCount());
+        assertEquals(1, consumer.getCoalescedRequestCount());
+    }
+
+    public void testDistinctQueriesDownloadSeparately() throws Exception {
+        Query other = new Query("earthquakes", DataTypeModel.class);
+        query.addWhere(gt(column("magnitude"), literal(3)));
+        other.addWhere(gt(column("magnitude"), literal(4)));
+        ResultCallback first = new ResultCallback();
+        ResultCallback second = new ResultCallback();
+        consumer.getObjects(query, first);
+        consumer.getObjects(other, second);
+        assertEquals(2, consumer.getPendingCount());
+        assertEquals(0, consumer.getCoalescedRequestCount());
+
+        consumer.runPending();
+        assertEquals(2, consumer.getTestHttpClient().getRequests().size());
+        assertEquals(1, first.responses.size());
+        assertEquals(1, second.responses.size());
+    }
+
+    public void testEachCallbackReceivesItsOwnList() throws Exception {
+        ResultCallback first = new ResultCallback();
+        ResultCallback second = new ResultCallback();
+        consumer.getObjects(query, first);
+        consumer.getObjects(query, second);
+        consumer.runPending();
+
+        List<DataTypeModel> firstRows = first.responses.get(0).getEntity();
+        List<DataTypeModel> secondRows = second.responses.get(0).getEntity();
+        assertNotSame(firstRows, secondRows);
+        firstRows.clear();
+        assertEquals(2, secondRows.size());
+        assertEquals(first.responses.get(0).getStatus(), second.responses.get(0).getStatus());
+    }
+
+    public void testCancelDetachesOnlyItsCallback() throws Exception {
+        ResultCallback first = new ResultCallback();
+        ResultCallback second = new ResultCallback();
+        RequestHandle firstHandle = consumer.getObjects(query, first);
+        RequestHandle secondHandle = consumer.getObjects(query, second);
+        firstHandle.cancel();
+        assertTrue(firstHandle.isCancelled());
+        assertFalse(secondHandle.isCancelled());
+
+        consumer.runPending();
+        assertEquals(1, consumer.getTestHttpClient().getRequests().size());
+        assertTrue(first.responses.isEmpty());
+        assertEquals(1, second.responses.size());
+        assertTrue(secondHandle.isDone());
+    }
+
+    public void testCancellingEveryCallbackCancelsTheRequest() throws Exception {
+        ResultCallback first = new ResultCallback();
+        ResultCallback second = new ResultCallback();
+        consumer.getObjects(query, first).cancel();
+        consumer.getObjects(query, second).cancel();
+
+        consumer.runPending();
+        assertTrue(consumer.getTestHttpClient().getRequests().isEmpty());
+        assertTrue(first.responses.isEmpty());
+        assertTrue(second.responses.isEmpty());
+    }
+
+    public void testDecodeFailureReleasesEveryCaller() throws Exception {
+        consumer.getTestHttpClient().setResponse(200, "[{\"number\" : \"not a number\"}]");
+        ResultCallback first = new ResultCallback();
+        ResultCallback second = new ResultCallback();
+        consumer.getObjects(query, first);
+        consumer.getObjects(query, second);
+        consumer.runPending();
+
+        assertEquals(1, first.responses.size());
+        assertEquals(1, second.responses.size());
+        assertNotNull(first.responses.get(0).getError());
+        assertTrue(first.responses.get(0).getError().getError() instanceof NumberFormatException);
+        assertNull(second.responses.get(0).getEntity());
+
+        ResultCallback retry = new ResultCallback();
+        consumer.getTestHttpClient().setResponse(200, "[{\"number\" : \"3\"}]");
+        consumer.getObjects(query, retry);
+        assertEquals(1, consumer.getPendingCount());
+        assertEquals(1, consumer.getCoalescedRequestCount());
+        consumer.runPending();
+        assertEquals(Integer.valueOf(3), retry.responses.get(0).getEntity().get(0).getNumber());
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.socrata.android.client.Callback;
+import com.socrata.android.client.Consumer;
+import com.socrata.android.client.Response;
+import com.socrata.android.soql.Query;
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Threads requests are decoded and delivered on
+ */
+public class ConsumerExecutorTest extends TestCase {
+
+    public void testConsumersShareTheDefaultExecutor() {
+        Consumer first = new Consumer("soda.demo.socrata.com");
+        Consumer second = new Consumer("soda.demo.socrata.com");
+        assertSame(first.getExecutor(), second.getExecutor());
+        assertNotSame(Consumer.SYNCHRONOUS, first.getExecutor());
+    }
+
+    public void testDecodingAndDeliveryRunOnTheirExecutors() throws Exception {
+        ExecutorService pool = Consumer.newThreadPool(1);
+        try {
+            TestConsumer consumer = new TestConsumer();
+            consumer.getTestHttpClient().setFields("[\"number\"]", "[\"number\"]");
+            consumer.getTestHttpClient().setResponse(200, "[{\"number\" : \"1\"}]");
+            consumer.setExecutor(pool);
+            final BlockingQueue<Runnable> deliveries = new LinkedBlockingQueue<Runnable>();
+            final String[] decodingThread = new String[1];
+            consumer.setCallbackExecutor(new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    decodingThread[0] = Thread.currentThread().getName();
+                    deliveries.add(command);
+                }
+            });
+            final Thread[] deliveryThread = new Thread[1];
+            final Response<?>[] result = new Response<?>[1];
+            consumer.getObjects(new Query("earthquakes", DataTypeModel.class), new Callback<List<DataTypeModel>>() {
+                @Override
+                public void onResults(Response<List<DataTypeModel>> response) {
+                    deliveryThread[0] = Thread.currentThread();
+                    result[0] = response;
+                }
+            });
+
+            Runnable delivery = deliveries.poll(5, TimeUnit.SECONDS);
+            assertNotNull("Response was not handed to the callback executor", delivery);
+            assertTrue(decodingThread[0].startsWith("soda-consumer-"));
+            assertNull("Callback invoked before the callback executor ran it", result[0]);
+            delivery.run();
+            assertSame(Thread.currentThread(), deliveryThread[0]);
+            assertEquals(200, result[0].getStatus());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
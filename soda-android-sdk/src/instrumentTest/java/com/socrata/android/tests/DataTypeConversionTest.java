@@ -14,11 +14,15 @@ package com.socrata.android.tests;
 
 import com.socrata.android.client.DataTypesMapper;
 import com.socrata.android.client.JsonAdapter;
+import com.socrata.android.client.converters.DataTypeConverter;
+import com.socrata.android.soql.datatypes.Location;
 import junit.framework.TestCase;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.lang.reflect.Field;
+
 /**
  * Common datatypes conversion
  */
@@ -59,9 +63,9 @@ public class DataTypeConversionTest extends TestCase {
             "  \"datetime\" : \"2012-09-17T00:00:00\"\n" +
             "}";
 
-    private static final String fieldsJson = "[\"phone\",\":updated_at\",\"percent\",\"datetimewtimezone\",\"plaintext\",\"location\",\"star\",\"number\",\"linkeddataset\",\"photo\",\"formattedtext\",\"url\",\"document\",\"multiplechoice\",\"flag\",\"email\",\"checkbox\",\"money\",\":id\",\":created_at\",\"datetime\"]";
+    static final String fieldsJson = "[\"phone\",\":updated_at\",\"percent\",\"datetimewtimezone\",\"plaintext\",\"location\",\"star\",\"number\",\"linkeddataset\",\"photo\",\"formattedtext\",\"url\",\"document\",\"multiplechoice\",\"flag\",\"email\",\"checkbox\",\"money\",\":id\",\":created_at\",\"datetime\"]";
 
-    private static final String typesJson = "[\"phone\",\"meta_data\",\"percent\",\"date\",\"text\",\"location\",\"stars\",\"number\",\"dataset_link\",\"photo\",\"html\",\"url\",\"document\",\"drop_down_list\",\"flag\",\"email\",\"checkbox\",\"money\",\"meta_data\",\"meta_data\",\"calendar_date\"]";
+    static final String typesJson = "[\"phone\",\"meta_data\",\"percent\",\"date\",\"text\",\"location\",\"stars\",\"number\",\"dataset_link\",\"photo\",\"html\",\"url\",\"document\",\"drop_down_list\",\"flag\",\"email\",\"checkbox\",\"money\",\"meta_data\",\"meta_data\",\"calendar_date\"]";
 
     public void testTypeConversion() throws JSONException, InstantiationException, IllegalAccessException {
         JSONObject parsedJson = new JSONObject(json);
@@ -77,4 +81,45 @@ public class DataTypeConversionTest extends TestCase {
         assertNotNull(dataTypeModel);
     }
 
+    public void testEmbeddedAdaptersAreReused() throws JSONException, InstantiationException, IllegalAccessException {
+        DataTypesMapper dataTypesMapper = new DataTypesMapper();
+        JsonAdapter<DataTypeModel> jsonAdapter = new JsonAdapter<DataTypeModel>(DataTypeModel.class, dataTypesMapper);
+        jsonAdapter.addFieldMappings(fieldsJson, typesJson);
+        DataTypeModel first = jsonAdapter.fromJsonObject(new JSONObject(json));
+        DataTypeModel second = jsonAdapter.fromJsonObject(new JSONObject(json));
+        assertSame(dataTypesMapper.getEmbeddedAdapter(Location.class), dataTypesMapper.getEmbeddedAdapter(Location.class));
+        assertEquals(40.72935037801244, first.getLocation().getLatitude());
+        assertEquals(-74.00382286468441, second.getLocation().getLongitude());
+        assertEquals("Cell", second.getPhone().getType());
+    }
+
+    public void testConverterRegistrationReachesEveryMapper() throws JSONException, InstantiationException, IllegalAccessException {
+        DataTypesMapper dataTypesMapper = new DataTypesMapper();
+        JSONObject row = new JSONObject("{\"percent\" : \"10\"}");
+        JsonAdapter<DataTypeModel> before = new JsonAdapter<DataTypeModel>(DataTypeModel.class, dataTypesMapper);
+        before.addFieldMapping("percent", "test_percent");
+        assertEquals(Integer.valueOf(10), before.fromJsonObject(row).getPercent());
+
+        new DataTypesMapper().setConverter("test_percent", new DataTypeConverter<Integer>() {
+            @Override
+            public Integer getValue(DataTypesMapper dataTypesMapper, Field field, String type, Object value) {
+                return 42;
+            }
+        });
+        JsonAdapter<DataTypeModel> after = new JsonAdapter<DataTypeModel>(DataTypeModel.class, dataTypesMapper);
+        after.addFieldMapping("percent", "test_percent");
+        assertEquals(Integer.valueOf(42), after.fromJsonObject(row).getPercent());
+    }
+
+    public void testBindingPlansAreBounded() throws JSONException, InstantiationException, IllegalAccessException {
+        DataTypesMapper dataTypesMapper = new DataTypesMapper();
+        JSONObject row = new JSONObject("{\"percent\" : \"10\"}");
+        for (int i = 0; i <= DataTypesMapper.MAX_BINDING_PLANS * 2; i++) {
+            JsonAdapter<DataTypeModel> adapter = new JsonAdapter<DataTypeModel>(DataTypeModel.class, dataTypesMapper);
+            adapter.addFieldMapping("percent", "percent");
+            adapter.addFieldMapping("header_" + i, "text");
+            assertEquals(Integer.valueOf(10), adapter.fromJsonObject(row).getPercent());
+        }
+    }
+
 }
@@ -0,0 +1,192 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.socrata.android.client.Callback;
+import com.socrata.android.client.Consumer;
+import com.socrata.android.client.RequestHandle;
+import com.socrata.android.client.Response;
+import com.socrata.android.client.ResponseError;
+import com.socrata.android.soql.Query;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parallel page fetching
+ */
+public class FetchAllTest extends TestCase {
+
+    /**
+     * A consumer that records page requests instead of executing them
+     */
+    private static class RecordingConsumer<T> extends Consumer {
+
+        private final List<String> queries = new ArrayList<String>();
+
+        private final List<Callback<List<T>>> callbacks = new ArrayList<Callback<List<T>>>();
+
+        private final List<TestRequestHandle> handles = new ArrayList<TestRequestHandle>();
+
+        private RecordingConsumer() {
+            super("soda.demo.socrata.com");
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R> RequestHandle getObjects(String dataset, String query, Class<?> mapping, Callback<R> callback) {
+            queries.add(query);
+            callbacks.add((Callback<List<T>>) callback);
+            TestRequestHandle handle = new TestRequestHandle();
+            handles.add(handle);
+            return handle;
+        }
+
+        private void respond(int page, final List<T> entity) {
+            callbacks.get(page).onResults(new Response<List<T>>() {{
+                setStatus(200);
+                setEntity(entity);
+            }});
+        }
+
+        private void fail(int page) {
+            callbacks.get(page).onResults(new Response<List<T>>() {{
+                setStatus(500);
+                setError(new ResponseError("internal", "Page failed", null));
+            }});
+        }
+    }
+
+    private static class ResultCallback<T> implements Callback<List<T>> {
+
+        private Response<List<T>> response;
+
+        @Override
+        public void onResults(Response<List<T>> response) {
+            assertNull("Results delivered twice", this.response);
+            this.response = response;
+        }
+    }
+
+    public void testPagesAreReassembledInOrder() throws Exception {
+        RecordingConsumer<Integer> consumer = new RecordingConsumer<Integer>();
+        ResultCallback<Integer> callback = new ResultCallback<Integer>();
+        consumer.fetchAll(new Query("earthquakes", Integer.class), 2, 2, callback);
+        assertEquals(2, consumer.queries.size());
+        assertTrue(consumer.queries.get(0).endsWith("order by :id offset 0 limit 2"));
+        assertTrue(consumer.queries.get(1).endsWith("order by :id offset 2 limit 2"));
+
+        consumer.respond(1, Arrays.asList(3, 4));
+        assertEquals(3, consumer.queries.size());
+        assertTrue(consumer.queries.get(2).endsWith("order by :id offset 4 limit 2"));
+        consumer.respond(2, Arrays.asList(5));
+        assertNull(callback.response);
+        consumer.respond(0, Arrays.asList(1, 2));
+
+        assertEquals(3, consumer.queries.size());
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), callback.response.getEntity());
+    }
+
+    public void testStopsOnShortPage() throws Exception {
+        RecordingConsumer<Integer> consumer = new RecordingConsumer<Integer>();
+        ResultCallback<Integer> callback = new ResultCallback<Integer>();
+        Query query = new Query("earthquakes", Integer.class);
+        query.addOrder(Query.orderBy("magnitude").getExpressions());
+        query.setOffset(10);
+        consumer.fetchAll(query, 2, 3, callback);
+        assertTrue(consumer.queries.get(0).endsWith("order by magnitude offset 10 limit 2"));
+        assertEquals(3, consumer.queries.size());
+
+        consumer.respond(0, new ArrayList<Integer>());
+        consumer.respond(2, Arrays.asList(7, 8));
+        consumer.respond(1, Arrays.asList(5, 6));
+        assertEquals(3, consumer.queries.size());
+        assertEquals(new ArrayList<Integer>(), callback.response.getEntity());
+    }
+
+    public void testKeysetPagesAreSequential() throws Exception {
+        RecordingConsumer<DataTypeModel> consumer = new RecordingConsumer<DataTypeModel>();
+        ResultCallback<DataTypeModel> callback = new ResultCallback<DataTypeModel>();
+        Query query = new Query("earthquakes", DataTypeModel.class);
+        query.setKeyset("number");
+        consumer.fetchAll(query, 2, 4, callback);
+        assertEquals(1, consumer.queries.size());
+        assertTrue(consumer.queries.get(0).endsWith("order by number limit 2"));
+
+        consumer.respond(0, Arrays.asList(model(1), model(2)));
+        assertEquals(2, consumer.queries.size());
+        assertTrue(consumer.queries.get(1).endsWith("where number > 2 order by number limit 2"));
+        consumer.respond(1, Arrays.asList(model(3)));
+
+        assertEquals(2, consumer.queries.size());
+        assertEquals(3, callback.response.getEntity().size());
+        assertEquals(Integer.valueOf(3), callback.response.getEntity().get(2).getNumber());
+    }
+
+    public void testCancelStopsPaging() throws Exception {
+        RecordingConsumer<Integer> consumer = new RecordingConsumer<Integer>();
+        ResultCallback<Integer> callback = new ResultCallback<Integer>();
+        RequestHandle handle = consumer.fetchAll(new Query("earthquakes", Integer.class), 2, 2, callback);
+        consumer.respond(0, Arrays.asList(1, 2));
+        assertEquals(3, consumer.queries.size());
+        assertFalse(handle.isDone());
+
+        handle.cancel();
+        assertTrue(handle.isCancelled());
+        assertTrue(handle.isDone());
+        assertFalse(consumer.handles.get(0).isCancelled());
+        assertTrue(consumer.handles.get(1).isCancelled());
+        assertTrue(consumer.handles.get(2).isCancelled());
+        consumer.respond(1, Arrays.asList(3, 4));
+        assertEquals(3, consumer.queries.size());
+        assertNull(callback.response);
+    }
+
+    public void testShortPageCancelsLaterPages() throws Exception {
+        RecordingConsumer<Integer> consumer = new RecordingConsumer<Integer>();
+        ResultCallback<Integer> callback = new ResultCallback<Integer>();
+        consumer.fetchAll(new Query("earthquakes", Integer.class), 2, 3, callback);
+        assertEquals(3, consumer.queries.size());
+
+        consumer.respond(1, Arrays.asList(3));
+        assertFalse(consumer.handles.get(0).isCancelled());
+        assertTrue(consumer.handles.get(2).isCancelled());
+        assertNull(callback.response);
+
+        consumer.respond(0, Arrays.asList(1, 2));
+        assertEquals(3, consumer.queries.size());
+        assertEquals(Arrays.asList(1, 2, 3), callback.response.getEntity());
+    }
+
+    public void testFailedPageCancelsOtherPages() throws Exception {
+        RecordingConsumer<Integer> consumer = new RecordingConsumer<Integer>();
+        ResultCallback<Integer> callback = new ResultCallback<Integer>();
+        consumer.fetchAll(new Query("earthquakes", Integer.class), 2, 3, callback);
+
+        consumer.fail(1);
+        assertTrue(consumer.handles.get(0).isCancelled());
+        assertTrue(consumer.handles.get(2).isCancelled());
+        assertEquals(3, consumer.queries.size());
+        assertEquals(500, callback.response.getStatus());
+        assertTrue(callback.response.hasError());
+    }
+
+    private static DataTypeModel model(int number) {
+        DataTypeModel model = new DataTypeModel();
+        model.setNumber(number);
+        return model;
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.MarkerOptions;
+import com.socrata.android.ui.map.Cluster;
+import com.socrata.android.ui.map.GridClusterer;
+import com.socrata.android.ui.map.MarkerManager;
+import junit.framework.TestCase;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grid clustering per zoom level
+ */
+public class GridClustererTest extends TestCase {
+
+    private static final MarkerManager.MarkerSource<LatLng> SOURCE = new MarkerManager.MarkerSource<LatLng>() {
+        @Override
+        public MarkerOptions toMarkerOptions(LatLng position) {
+            return new MarkerOptions().position(position);
+        }
+
+        @Override
+        public LatLng getPosition(LatLng position) {
+            return position;
+        }
+    };
+
+    private static Map<Object, LatLng> rows() {
+        Map<Object, LatLng> rows = new LinkedHashMap<Object, LatLng>();
+        rows.put(1, new LatLng(47.60, -122.30));
+        rows.put(2, new LatLng(47.61, -122.31));
+        rows.put(3, new LatLng(47.62, -122.33));
+        rows.put(4, new LatLng(40.71, -74.00));
+        return rows;
+    }
+
+    public void testNearbyRowsAreClustered() {
+        List<Cluster<LatLng>> clusters = new GridClusterer<LatLng>(SOURCE).getClusters(rows(), 6);
+        assertEquals(2, clusters.size());
+        assertEquals(3, clusters.get(0).getSize());
+        assertEquals(47.61, clusters.get(0).getPosition().latitude, 1e-9);
+        assertEquals(1, clusters.get(1).getSize());
+        assertEquals(8, clusters.get(0).getCell().getZoom());
+    }
+
+    public void testZoomingInSplitsClusters() {
+        List<Cluster<LatLng>> clusters = new GridClusterer<LatLng>(SOURCE).getClusters(rows(), 14);
+        assertEquals(4, clusters.size());
+    }
+
+    public void testCoarserLevelsAreMergedFromFinerOnes() {
+        GridClusterer<LatLng> clusterer = new GridClusterer<LatLng>(SOURCE);
+        Map<Object, LatLng> rows = rows();
+        List<Cluster<LatLng>> fine = clusterer.getClusters(rows, 14);
+        assertSame(fine, clusterer.getClusters(rows(), 14));
+        List<Cluster<LatLng>> merged = clusterer.getClusters(rows, 6);
+        List<Cluster<LatLng>> direct = new GridClusterer<LatLng>(SOURCE).getClusters(rows, 6);
+        assertEquals(direct.size(), merged.size());
+        for (int i = 0; i < direct.size(); i++) {
+            assertEquals(direct.get(i).getCell(), merged.get(i).getCell());
+            assertEquals(direct.get(i).getItems(), merged.get(i).getItems());
+            assertEquals(direct.get(i).getPosition().longitude, merged.get(i).getPosition().longitude, 1e-9);
+        }
+        assertEquals(1, GridClusterer.merge(direct, 0).size());
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.socrata.android.client.DataTypesMapper;
+import com.socrata.android.client.JsonAdapter;
+import com.socrata.android.client.JsonRowReader;
+import junit.framework.TestCase;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming row decoding
+ */
+public class JsonRowReaderTest extends TestCase {
+
+    private static JsonRowReader reader(String json) {
+        return new JsonRowReader(new StringReader(json));
+    }
+
+    public void testArrayRows() throws Exception {
+        JsonRowReader rows = reader(" [ {\"a\" : 1}, {\"a\" : 2} ] ");
+        assertTrue(rows.hasNext());
+        assertEquals(1, rows.next().getInt("a"));
+        assertTrue(rows.hasNext());
+        assertEquals(2, rows.next().getInt("a"));
+        assertFalse(rows.hasNext());
+        assertTrue(rows.isArray());
+    }
+
+    public void testEmptyArray() throws Exception {
+        JsonRowReader rows = reader("[]");
+        assertFalse(rows.hasNext());
+        assertTrue(rows.isArray());
+    }
+
+    public void testSingleObject() throws Exception {
+        JsonRowReader rows = reader("{\"a\" : \"b\"}");
+        assertTrue(rows.hasNext());
+        assertEquals("b", rows.next().getString("a"));
+        assertFalse(rows.hasNext());
+        assertFalse(rows.isArray());
+    }
+
+    public void testValues() throws Exception {
+        JSONObject row = reader("[{\"s\" : \"a\\\"b\\u0041\", \"i\" : -3, \"l\" : 1347865200000, \"d\" : 1.5e2, \"t\" : true, \"n\" : null, \"o\" : {\"x\" : [1, \"y\"]}}]").next();
+        assertEquals("a\"bA", row.getString("s"));
+        assertEquals(Integer.valueOf(-3), row.get("i"));
+        assertEquals(Long.valueOf(1347865200000L), row.get("l"));
+        assertEquals(150.0, row.getDouble("d"));
+        assertEquals(Boolean.TRUE, row.get("t"));
+        assertTrue(row.isNull("n"));
+        assertEquals("y", row.getJSONObject("o").getJSONArray("x").getString(1));
+    }
+
+    public void testStreamDecoding() throws Exception {
+        JsonAdapter<DataTypeModel> jsonAdapter = new JsonAdapter<DataTypeModel>(DataTypeModel.class, new DataTypesMapper());
+        jsonAdapter.addFieldMapping("plaintext", "text");
+        jsonAdapter.addFieldMapping("money", "money");
+        JsonRowReader rows = reader("[{\"plaintext\" : \"a\", \"money\" : \"10\"}, {\"plaintext\" : \"b\"}]");
+        List<DataTypeModel> models = new ArrayList<DataTypeModel>();
+        while (rows.hasNext()) {
+            models.add(jsonAdapter.fromJsonObject(rows.next()));
+        }
+        assertEquals(2, models.size());
+        assertEquals("a", models.get(0).getPlaintext());
+        assertEquals(10.0, models.get(0).getMoney());
+        assertEquals("b", models.get(1).getPlaintext());
+    }
+
+    public void testMalformed() throws Exception {
+        JsonRowReader rows = reader("[{\"a\" : 1} {\"a\" : 2}]");
+        try {
+            rows.next();
+            fail("Malformed rows should not be read");
+        } catch (JSONException e) {
+            // expected
+        }
+    }
+
+}
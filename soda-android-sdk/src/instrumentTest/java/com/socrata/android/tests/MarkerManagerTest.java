@@ -0,0 +1,58 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.MarkerOptions;
+import com.socrata.android.ui.map.MarkerManager;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Marker cap selection
+ */
+public class MarkerManagerTest extends TestCase {
+
+    private static final MarkerManager.MarkerSource<LatLng> SOURCE = new MarkerManager.MarkerSource<LatLng>() {
+        @Override
+        public MarkerOptions toMarkerOptions(LatLng position) {
+            return new MarkerOptions().position(position);
+        }
+
+        @Override
+        public LatLng getPosition(LatLng position) {
+            return position;
+        }
+    };
+
+    public void testNearestRowsAreKept() {
+        Map<Object, LatLng> rows = new LinkedHashMap<Object, LatLng>();
+        rows.put("far", new LatLng(10, 10));
+        rows.put("near", new LatLng(0.1, 0.1));
+        rows.put("middle", new LatLng(1, -1));
+        Map<Object, LatLng> nearest = MarkerManager.nearest(rows, new LatLng(0, 0), 2, SOURCE);
+        assertEquals(Arrays.<Object>asList("near", "middle"), Arrays.asList(nearest.keySet().toArray()));
+    }
+
+    public void testNearestAcrossAntimeridian() {
+        Map<Object, LatLng> rows = new LinkedHashMap<Object, LatLng>();
+        rows.put("west", new LatLng(0, 170));
+        rows.put("east", new LatLng(0, -179));
+        Map<Object, LatLng> nearest = MarkerManager.nearest(rows, new LatLng(0, 179), 1, SOURCE);
+        assertTrue(nearest.containsKey("east"));
+    }
+
+}
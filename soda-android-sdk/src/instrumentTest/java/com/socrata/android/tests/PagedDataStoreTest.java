@@ -0,0 +1,68 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.socrata.android.ui.list.PagedDataStore;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Windowed paged storage of list rows
+ */
+public class PagedDataStoreTest extends TestCase {
+
+    private static List<Integer> page(int first, int size) {
+        List<Integer> rows = new ArrayList<Integer>();
+        for (int i = 0; i < size; i++) {
+            rows.add(first + i);
+        }
+        return rows;
+    }
+
+    public void testFarPagesAreDroppedAndCountIsKept() {
+        PagedDataStore<Integer> store = new PagedDataStore<Integer>(10, 3);
+        for (int page = 0; page < 6; page++) {
+            store.get(page * 10);
+            store.put(page, page(page * 10, 10));
+            assertTrue(store.getPagesInMemory() <= 3);
+        }
+        assertEquals(60, store.getCount());
+        assertEquals(6, store.getNextPage());
+        assertEquals(Integer.valueOf(55), store.get(55));
+        assertEquals(Integer.valueOf(35), store.get(35));
+        assertNull(store.get(5));
+        assertFalse(store.contains(0));
+        store.put(0, page(0, 10));
+        assertEquals(Integer.valueOf(5), store.get(5));
+        assertFalse(store.contains(5));
+        assertEquals(60, store.getCount());
+        assertFalse(store.isComplete());
+    }
+
+    public void testShortPageCompletesTheStore() {
+        PagedDataStore<Integer> store = new PagedDataStore<Integer>(10, 0);
+        store.put(0, page(0, 10));
+        store.put(1, page(10, 4));
+        assertTrue(store.isComplete());
+        assertEquals(14, store.getCount());
+        assertEquals(2, store.getPagesInMemory());
+        store.clear();
+        assertEquals(0, store.getCount());
+        store.setTotal(25);
+        assertEquals(25, store.getCount());
+        assertNull(store.get(20));
+    }
+
+}
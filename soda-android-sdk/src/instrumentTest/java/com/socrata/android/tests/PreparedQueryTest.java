@@ -0,0 +1,88 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.socrata.android.soql.PreparedQuery;
+import com.socrata.android.soql.Query;
+import com.socrata.android.soql.datatypes.GeoBox;
+import junit.framework.TestCase;
+
+import java.util.Date;
+
+import static com.socrata.android.soql.Query.box;
+import static com.socrata.android.soql.clauses.Expression.*;
+
+/**
+ * Query templates with bound parameters
+ */
+public class PreparedQueryTest extends TestCase {
+
+    private static PreparedQuery prepare() {
+        Query query = new Query("earthquakes", Object.class);
+        query.addWhere(contains(column("region"), param("keyword", String.class)));
+        query.addWhere(withinBox(column("location"), param("box", GeoBox.class)));
+        query.addWhere(or(gt(column("magnitude"), param("magnitude", Number.class)), eq(column("source"), param("keyword", String.class))));
+        query.setLimit(10);
+        return query.prepare();
+    }
+
+    public void testBoundValuesAreRenderedAsLiterals() {
+        PreparedQuery prepared = prepare();
+        prepared.bind("keyword", "O'Brien").bind("box", box(47.8, -122.2, 47.4, -122.5)).bind("magnitude", 3.5);
+        assertEquals("select * where contains(region, 'O''Brien') and within_box(location, 47.8, -122.2, 47.4, -122.5) " +
+                "and magnitude > 3.5 or source = 'O''Brien' offset 0 limit 10", prepared.build());
+        prepared.bind("magnitude", 5);
+        assertTrue(prepared.build().contains("magnitude > 5 or"));
+        assertEquals("earthquakes", prepared.getDataset());
+    }
+
+    public void testCopiesBindValuesIndependently() {
+        PreparedQuery prepared = prepare();
+        prepared.bind("keyword", "a").bind("box", box(47.8, -122.2, 47.4, -122.5)).bind("magnitude", 3.5);
+        PreparedQuery copy = prepared.copy();
+        copy.bind("magnitude", 5);
+        assertTrue(prepared.build().contains("magnitude > 3.5 or"));
+        assertTrue(copy.build().contains("magnitude > 5 or"));
+        assertTrue(copy.build().contains("contains(region, 'a')"));
+        assertEquals(prepared.getDataset(), copy.getDataset());
+        assertSame(prepared.getMapping(), copy.getMapping());
+    }
+
+    public void testValuesAreTypeChecked() {
+        PreparedQuery prepared = prepare();
+        try {
+            prepared.bind("magnitude", "3.5");
+            fail("String bound to a Number parameter");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            prepared.bind("since", new Date());
+            fail("Unknown parameter bound");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testUnboundParametersFailToRender() {
+        PreparedQuery prepared = prepare();
+        prepared.bind("keyword", "a");
+        try {
+            prepared.build();
+            fail("Unbound parameters rendered");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import android.os.Debug;
+import android.text.TextUtils;
+import android.util.Log;
+import com.socrata.android.soql.Query;
+import com.socrata.android.soql.clauses.BuildCapable;
+import com.socrata.android.soql.clauses.Expression;
+import com.socrata.android.soql.clauses.Limit;
+import com.socrata.android.soql.clauses.Offset;
+import junit.framework.TestCase;
+
+import static com.socrata.android.soql.Query.box;
+import static com.socrata.android.soql.clauses.Expression.*;
+import static com.socrata.android.soql.clauses.OrderDirection.DESC;
+
+/**
+ * Per build allocations and cost of joining clause strings versus appending every clause to a single builder,
+ * and of rendering freshly built expression trees. Results are logged under the "socrata" tag.
+ */
+public class QueryBuildBenchmarkTest extends TestCase {
+
+    private static final int BUILDS = 5000;
+
+    /**
+     * Nesting depth of the freshly built expression trees
+     */
+    private static final int DEPTH = 12;
+
+    private interface Renderer {
+        String render(Query query);
+    }
+
+    private interface TreeRenderer {
+        String render(BuildCapable tree);
+    }
+
+    public void testQueryBuildAllocations() {
+        final Query query = new Query("earthquakes", Object.class);
+        query.addSelect(as(count("*"), "total"), column("region"));
+        query.addWhere(gt("magnitude", "3.5"), isNotNull("region"));
+        query.whereWithinBox(column("location"), box(47.8, -122.2, 47.4, -122.5));
+        query.addGroup(column("region"));
+        query.addOrder(order("total", DESC));
+        query.setLimit(100);
+
+        final StringBuilder shared = new StringBuilder(256);
+        Renderer joined = new Renderer() {
+            @Override
+            public String render(Query query) {
+                return joinedBuild(query);
+            }
+        };
+        Renderer built = new Renderer() {
+            @Override
+            public String render(Query query) {
+                return query.build();
+            }
+        };
+        Renderer appended = new Renderer() {
+            @Override
+            public String render(Query query) {
+                shared.setLength(0);
+                query.appendTo(shared);
+                return null;
+            }
+        };
+        assertEquals(joinedBuild(query), query.build());
+
+        long[] joinedCost = measure(joined, query);
+        long[] builtCost = measure(built, query);
+        long[] appendedCost = measure(appended, query);
+        assertEquals(query.build(), shared.toString());
+
+        Log.i("socrata", String.format("Per build cost: joined clauses %d ns %d allocs, build() %d ns %d allocs, appendTo shared builder %d ns %d allocs",
+                joinedCost[0], joinedCost[1], builtCost[0], builtCost[1], appendedCost[0], appendedCost[1]));
+        assertTrue(appendedCost[1] <= builtCost[1]);
+    }
+
+    public void testFreshTreeBuildAllocations() {
+        TreeRenderer nodeByNode = new TreeRenderer() {
+            @Override
+            public String render(BuildCapable tree) {
+                return buildEveryNode(tree);
+            }
+        };
+        TreeRenderer built = new TreeRenderer() {
+            @Override
+            public String render(BuildCapable tree) {
+                return tree.build();
+            }
+        };
+        assertEquals(buildEveryNode(newTree()), newTree().build());
+        assertEquals(newTree().build(), ((Expression) newTree()).getValue());
+
+        long[] nodeByNodeCost = measure(nodeByNode);
+        long[] builtCost = measure(built);
+
+        Log.i("socrata", String.format("Per fresh tree build cost: each node rendered apart %d ns %d allocs, build() %d ns %d allocs",
+                nodeByNodeCost[0], nodeByNodeCost[1], builtCost[0], builtCost[1]));
+        assertTrue(builtCost[1] <= nodeByNodeCost[1]);
+    }
+
+    /**
+     * Private helper that returns the per build time in ns and allocation count of a renderer
+     */
+    private static long[] measure(Renderer renderer, Query query) {
+        for (int i = 0; i < BUILDS / 10; i++) {
+            renderer.render(query);
+        }
+        Debug.startAllocCounting();
+        Debug.resetThreadAllocCount();
+        long start = System.nanoTime();
+        for (int i = 0; i < BUILDS; i++) {
+            renderer.render(query);
+        }
+        long time = (System.nanoTime() - start) / BUILDS;
+        long allocations = Debug.getThreadAllocCount() / BUILDS;
+        Debug.stopAllocCounting();
+        return new long[]{time, allocations};
+    }
+
+    /**
+     * Private helper that returns the per build time in ns and allocation count of a renderer rendering a freshly
+     * built tree each time, building the trees is included in the cost
+     */
+    private static long[] measure(TreeRenderer renderer) {
+        for (int i = 0; i < BUILDS / 10; i++) {
+            renderer.render(newTree());
+        }
+        Debug.startAllocCounting();
+        Debug.resetThreadAllocCount();
+        long start = System.nanoTime();
+        for (int i = 0; i < BUILDS; i++) {
+            renderer.render(newTree());
+        }
+        long time = (System.nanoTime() - start) / BUILDS;
+        long allocations = Debug.getThreadAllocCount() / BUILDS;
+        Debug.stopAllocCounting();
+        return new long[]{time, allocations};
+    }
+
+    /**
+     * Private helper that builds a where expression nested {@link #DEPTH} levels deep
+     */
+    private static BuildCapable newTree() {
+        Expression tree = gt(column("magnitude"), literal(3.5));
+        for (int i = 0; i < DEPTH; i++) {
+            tree = and(tree, or(eq(column("region"), literal("Region " + i)), isNull(column("depth"))));
+        }
+        return tree;
+    }
+
+    /**
+     * The rendering Expression.build() performed before subtrees were appended straight into the caller builder,
+     * every node rendered into its own string before its parent, kept as the benchmark baseline
+     */
+    private static String buildEveryNode(BuildCapable node) {
+        if (node instanceof Expression) {
+            for (BuildCapable operand : ((Expression) node).getOperands()) {
+                buildEveryNode(operand);
+            }
+        }
+        return node.build();
+    }
+
+    /**
+     * The clause joining Query.build() performed before clauses were appended to a single builder,
+     * kept as the benchmark baseline
+     */
+    private static String joinedBuild(Query query) {
+        BuildCapable[] parts = new BuildCapable[]{query.getSelect(), query.getWhere(), query.getGroupBy(), query.getOrderBy(), new Offset(query.getOffset()), new Limit(query.getLimit())};
+        String[] built = new String[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            built[i] = parts[i].build();
+        }
+        return TextUtils.join(" ", built).replaceAll("  ", " ").trim();
+    }
+
+}
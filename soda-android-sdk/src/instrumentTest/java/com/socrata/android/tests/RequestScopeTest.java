@@ -0,0 +1,46 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.socrata.android.client.RequestScope;
+import junit.framework.TestCase;
+
+/**
+ * Lifecycle scoped request cancellation
+ */
+public class RequestScopeTest extends TestCase {
+
+    public void testCancelAll() {
+        RequestScope scope = new RequestScope();
+        TestRequestHandle first = scope.add(new TestRequestHandle());
+        TestRequestHandle second = scope.add(new TestRequestHandle());
+        assertNull(scope.add(null));
+        assertEquals(2, scope.size());
+        scope.cancelAll();
+        assertTrue(first.isCancelled());
+        assertTrue(second.isCancelled());
+        assertEquals(0, scope.size());
+    }
+
+    public void testDoneRequestsAreDropped() {
+        RequestScope scope = new RequestScope();
+        TestRequestHandle done = scope.add(new TestRequestHandle());
+        done.setDone(true);
+        TestRequestHandle pending = scope.add(new TestRequestHandle());
+        assertEquals(1, scope.size());
+        scope.cancelAll();
+        assertFalse(done.isCancelled());
+        assertTrue(pending.isCancelled());
+    }
+
+}
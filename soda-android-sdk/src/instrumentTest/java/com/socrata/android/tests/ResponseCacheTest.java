@@ -0,0 +1,209 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.socrata.android.client.Callback;
+import com.socrata.android.client.Response;
+import com.socrata.android.client.cache.CacheEntry;
+import com.socrata.android.client.cache.DiskResponseCache;
+import com.socrata.android.client.cache.MemoryResponseCache;
+import com.socrata.android.client.cache.TieredResponseCache;
+import com.socrata.android.soql.Query;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response cache tiers and eviction
+ */
+public class ResponseCacheTest extends TestCase {
+
+    private File directory;
+
+    /**
+     * A second level that counts the entries written to it
+     */
+    private static class CountingCache extends MemoryResponseCache {
+
+        private int puts;
+
+        private CountingCache() {
+            super(1024 * 1024);
+        }
+
+        @Override
+        public void put(String key, CacheEntry entry) {
+            puts++;
+            super.put(key, entry);
+        }
+
+        @Override
+        public void putDecoded(String key, CacheEntry entry) {
+        }
+    }
+
+    private static class ResultCallback implements Callback<List<DataTypeModel>> {
+
+        private final List<Response<List<DataTypeModel>>> responses = new ArrayList<Response<List<DataTypeModel>>>();
+
+        @Override
+        public void onResults(Response<List<DataTypeModel>> response) {
+            responses.add(response);
+        }
+
+        private Response<List<DataTypeModel>> last() {
+            return responses.get(responses.size() - 1);
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        directory = new File(System.getProperty("java.io.tmpdir"), "soda-cache-test-" + System.nanoTime());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        new DiskResponseCache(directory, 0).clear();
+        directory.delete();
+    }
+
+    private static CacheEntry entry(int size, String etag) {
+        Map<String, String> headers = new HashMap<String, String>();
+        if (etag != null) {
+            headers.put("ETag", etag);
+        }
+        return new CacheEntry(new byte[size], headers, 1000, true);
+    }
+
+    public void testEntry() throws Exception {
+        CacheEntry entry = entry(10, "\"abc\"");
+        assertEquals("\"abc\"", entry.getETag());
+        assertTrue(entry.isRevalidatable());
+        assertTrue(entry.isFresh(500, 1200));
+        assertFalse(entry.isFresh(500, 1600));
+        assertFalse(entry.revalidated(1600).isFresh(0, 1600));
+        assertTrue(entry.revalidated(1600).isFresh(500, 1700));
+        assertNull(entry.getEntities(DataTypeModel.class));
+        CacheEntry decoded = entry.withEntities(DataTypeModel.class, Arrays.asList(new DataTypeModel()));
+        assertEquals(1, decoded.getEntities(DataTypeModel.class).size());
+        assertNull(decoded.getEntities(Object.class));
+        assertEquals(1, decoded.revalidated(2000).getEntities(DataTypeModel.class).size());
+        assertNull(decoded.withoutEntities().getEntities(DataTypeModel.class));
+    }
+
+    public void testMemoryEviction() throws Exception {
+        MemoryResponseCache cache = new MemoryResponseCache(250);
+        cache.put("a", entry(100, null));
+        cache.put("b", entry(100, null));
+        assertNotNull(cache.get("a"));
+        cache.put("c", entry(100, null));
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(200, cache.size());
+        cache.put("d", entry(300, null));
+        assertNull(cache.get("d"));
+    }
+
+    public void testDiskPersistence() throws Exception {
+        DiskResponseCache cache = new DiskResponseCache(directory, 1024);
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("ETag", "\"v1\"");
+        headers.put("X-SODA2-Fields", "[\"a\"]");
+        cache.put("key", new CacheEntry("[{\"a\" : 1}]".getBytes("UTF-8"), headers, 1234, true));
+
+        CacheEntry entry = new DiskResponseCache(directory, 1024).get("key");
+        assertNotNull(entry);
+        assertEquals("[{\"a\" : 1}]", new String(entry.getBody(), "UTF-8"));
+        assertEquals("\"v1\"", entry.getETag());
+        assertEquals("[\"a\"]", entry.getHeaders().get("X-SODA2-Fields"));
+        assertEquals(1234, entry.getStoredAt());
+        assertTrue(entry.isArray());
+        assertNull(cache.get("other"));
+    }
+
+    public void testDiskEviction() throws Exception {
+        DiskResponseCache cache = new DiskResponseCache(directory, 1000);
+        cache.put("a", entry(400, null));
+        cache.put("b", entry(400, null));
+        assertNotNull(cache.get("a"));
+        cache.put("c", entry(400, null));
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertTrue(cache.size() <= 1000);
+        cache.remove("a");
+        assertNull(cache.get("a"));
+    }
+
+    public void testTieredPromotion() throws Exception {
+        MemoryResponseCache memory = new MemoryResponseCache(1024);
+        DiskResponseCache disk = new DiskResponseCache(directory, 4096);
+        TieredResponseCache cache = new TieredResponseCache(memory, disk);
+        cache.put("a", entry(10, "\"a\""));
+        memory.clear();
+        assertNull(memory.get("a"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(memory.get("a"));
+        assertEquals(4096, cache.getMaxEntrySize());
+    }
+
+    public void testHitsOnlyWriteBackChangedEntries() throws Exception {
+        MemoryResponseCache memory = new MemoryResponseCache(1024 * 1024);
+        CountingCache second = new CountingCache();
+        TestConsumer consumer = new TestConsumer();
+        consumer.setResponseCache(new TieredResponseCache(memory, second));
+        consumer.setCacheMaxAge(60 * 1000);
+        consumer.getTestHttpClient().setFields("[\"number\"]", "[\"number\"]");
+        consumer.getTestHttpClient().setHeader("ETag", "\"v1\"");
+        consumer.getTestHttpClient().setResponse(200, "[{\"number\" : \"7\"}]");
+        Query query = new Query("earthquakes", DataTypeModel.class);
+        ResultCallback callback = new ResultCallback();
+
+        consumer.getObjects(query, callback);
+        consumer.runPending();
+        assertEquals(1, second.puts);
+
+        consumer.getObjects(query, callback);
+        consumer.runPending();
+        assertEquals(1, second.puts);
+        assertEquals(1, consumer.getTestHttpClient().getRequests().size());
+
+        memory.clear();
+        consumer.getObjects(query, callback);
+        consumer.runPending();
+        assertEquals(1, second.puts);
+        DataTypeModel decoded = callback.last().getEntity().get(0);
+        assertEquals(Integer.valueOf(7), decoded.getNumber());
+
+        consumer.getObjects(query, callback);
+        consumer.runPending();
+        assertEquals(1, second.puts);
+        assertSame(decoded, callback.last().getEntity().get(0));
+
+        consumer.setCacheMaxAge(0);
+        consumer.getTestHttpClient().setResponse(304, null);
+        consumer.getObjects(query, callback);
+        consumer.runPending();
+        assertEquals(2, second.puts);
+        assertEquals(2, consumer.getTestHttpClient().getRequests().size());
+        assertSame(decoded, callback.last().getEntity().get(0));
+        assertEquals(4, consumer.getCacheStats().getHitCount());
+    }
+
+}
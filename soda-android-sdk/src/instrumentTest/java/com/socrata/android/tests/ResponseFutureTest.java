@@ -0,0 +1,92 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.socrata.android.client.Callback;
+import com.socrata.android.client.Consumer;
+import com.socrata.android.client.Response;
+import com.socrata.android.client.ResponseFuture;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Future responses for worker threads
+ */
+public class ResponseFutureTest extends TestCase {
+
+    private static class RecordingCallback implements Callback<String> {
+
+        private final List<Response<String>> responses = new ArrayList<Response<String>>();
+
+        @Override
+        public void onResults(Response<String> response) {
+            responses.add(response);
+        }
+    }
+
+    private static Response<String> response(final String entity) {
+        return new Response<String>() {{
+            setStatus(200);
+            setEntity(entity);
+        }};
+    }
+
+    public void testCallbacksAreInvokedOnCompletion() throws Exception {
+        ResponseFuture<String> future = new ResponseFuture<String>();
+        RecordingCallback before = new RecordingCallback();
+        future.addCallback(before, Consumer.SYNCHRONOUS);
+        assertFalse(future.isDone());
+        assertTrue(future.set(response("a")));
+        assertFalse(future.set(response("b")));
+        RecordingCallback after = new RecordingCallback();
+        future.addCallback(after, Consumer.SYNCHRONOUS);
+
+        assertTrue(future.isDone());
+        assertEquals("a", future.get().getEntity());
+        assertEquals(1, before.responses.size());
+        assertEquals(1, after.responses.size());
+        assertSame(future.get(), after.responses.get(0));
+    }
+
+    public void testTimeout() throws Exception {
+        try {
+            new ResponseFuture<String>().get(10, TimeUnit.MILLISECONDS);
+            fail("Expected timeout");
+        } catch (TimeoutException e) {
+            // expected
+        }
+    }
+
+    public void testCancel() throws Exception {
+        ResponseFuture<String> future = new ResponseFuture<String>();
+        RecordingCallback callback = new RecordingCallback();
+        future.addCallback(callback, Consumer.SYNCHRONOUS);
+        assertTrue(future.cancel(true));
+        assertTrue(future.isCancelled());
+        assertTrue(future.isDone());
+        assertFalse(future.set(response("a")));
+        assertTrue(callback.responses.isEmpty());
+        try {
+            future.get();
+            fail("Expected cancellation");
+        } catch (CancellationException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.socrata.android.client.RequestHandle;
+import com.socrata.android.client.Response;
+import com.socrata.android.client.RowCallback;
+import com.socrata.android.soql.Query;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * Row at a time delivery of streamed responses
+ */
+public class RowStreamingTest extends TestCase {
+
+    private static class RecordingRowCallback implements RowCallback<DataTypeModel> {
+
+        private final List<Integer> numbers = new ArrayList<Integer>();
+
+        private final List<Integer> indexes = new ArrayList<Integer>();
+
+        private volatile Response<Void> completed;
+
+        private Response<Void> failed;
+
+        @Override
+        public void onRow(DataTypeModel row, int index) {
+            assertNull("Row delivered after completion", completed);
+            numbers.add(row.getNumber());
+            indexes.add(index);
+        }
+
+        @Override
+        public void onComplete(Response<Void> response) {
+            completed = response;
+        }
+
+        @Override
+        public void onError(Response<Void> response) {
+            failed = response;
+        }
+    }
+
+    private static String rows(int count) {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            body.append(i > 0 ? "," : "").append("{\"number\" : \"").append(i).append("\"}");
+        }
+        return body.append("]").toString();
+    }
+
+    private static TestConsumer consumer(int status, String body) {
+        TestConsumer consumer = new TestConsumer();
+        consumer.getTestHttpClient().setFields("[\"number\"]", "[\"number\"]");
+        consumer.getTestHttpClient().setResponse(status, body);
+        return consumer;
+    }
+
+    public void testRowsAreDeliveredInOrderThenCompleted() throws Exception {
+        TestConsumer consumer = consumer(200, rows(3));
+        RecordingRowCallback callback = new RecordingRowCallback();
+        consumer.streamObjects(new Query("earthquakes", DataTypeModel.class), callback);
+        consumer.runPending();
+
+        assertEquals(3, callback.numbers.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Integer.valueOf(i), callback.numbers.get(i));
+            assertEquals(Integer.valueOf(i), callback.indexes.get(i));
+        }
+        assertEquals(200, callback.completed.getStatus());
+        assertNull(callback.failed);
+    }
+
+    public void testFailureIsDeliveredToOnError() throws Exception {
+        TestConsumer consumer = consumer(400, "{\"code\" : \"query.compiler.malformed\", \"message\" : \"bad query\"}");
+        RecordingRowCallback callback = new RecordingRowCallback();
+        consumer.streamObjects(new Query("earthquakes", DataTypeModel.class), callback);
+        consumer.runPending();
+
+        assertTrue(callback.numbers.isEmpty());
+        assertNull(callback.completed);
+        assertEquals(400, callback.failed.getStatus());
+        assertEquals("query.compiler.malformed", callback.failed.getError().getCode());
+    }
+
+    public void testDecodingWaitsForUndeliveredRows() throws Exception {
+        final int total = 500;
+        final TestConsumer consumer = consumer(200, rows(total));
+        final ConcurrentLinkedQueue<Runnable> deliveries = new ConcurrentLinkedQueue<Runnable>();
+        consumer.setCallbackExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                deliveries.add(command);
+            }
+        });
+        RecordingRowCallback callback = new RecordingRowCallback();
+        consumer.streamObjects(new Query("earthquakes", DataTypeModel.class), callback);
+        Thread decoder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                consumer.runPending();
+            }
+        });
+        decoder.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (decoder.getState() != Thread.State.TIMED_WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        int queued = deliveries.size();
+        assertTrue("Decoder did not wait for deliveries", queued > 0 && queued < total);
+        Thread.sleep(150);
+        assertEquals(queued, deliveries.size());
+
+        while (callback.completed == null && System.currentTimeMillis() < deadline) {
+            Runnable delivery = deliveries.poll();
+            if (delivery != null) {
+                delivery.run();
+            }
+        }
+        decoder.join(1000);
+        assertEquals(total, callback.numbers.size());
+        assertEquals(Integer.valueOf(total - 1), callback.numbers.get(total - 1));
+        assertNotNull(callback.completed);
+    }
+
+    public void testCancelReleasesWaitingDecoder() throws Exception {
+        final TestConsumer consumer = consumer(200, rows(500));
+        consumer.setCallbackExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                // never delivered
+            }
+        });
+        RecordingRowCallback callback = new RecordingRowCallback();
+        RequestHandle handle = consumer.streamObjects(new Query("earthquakes", DataTypeModel.class), callback);
+        Thread decoder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                consumer.runPending();
+            }
+        });
+        decoder.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (decoder.getState() != Thread.State.TIMED_WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        handle.cancel();
+        decoder.join(2000);
+        assertFalse(decoder.isAlive());
+        assertTrue(handle.isDone());
+    }
+
+}
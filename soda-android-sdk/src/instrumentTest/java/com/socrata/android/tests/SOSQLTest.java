@@ -12,9 +12,15 @@
 
 package com.socrata.android.tests;
 
+import com.socrata.android.client.RowCount;
+import com.socrata.android.soql.Query;
 import com.socrata.android.soql.clauses.BuildCapable;
+import com.socrata.android.soql.clauses.Expression;
+import com.socrata.android.soql.utils.CanonicalUtils;
 import junit.framework.TestCase;
 
+import java.util.Calendar;
+import java.util.TimeZone;
 
 import static com.socrata.android.soql.Query.*;
 import static com.socrata.android.soql.clauses.Expression.*;
@@ -164,6 +170,10 @@ public final class SOSQLTest extends TestCase {
         assertExpression("a - b", subtract("a", "b"));
     }
 
+    public void testModulo() {
+        assertExpression("a % b", modulo("a", "b"));
+    }
+
     public void testToString() {
         assertExpression("to_string(a)", castToString("a"));
     }
@@ -196,6 +206,113 @@ public final class SOSQLTest extends TestCase {
         assertExpression("a desc", order("a", DESC));
         assertExpression("a asc", order("a", ASC));
     }
-    
-    
+
+    public void testAppend() {
+        assertExpression("where a = b and c = d", where(eq("a", "b")).append(eq("c", "d")));
+    }
+
+    public void testKeysetPagination() {
+        Query query = new Query("earthquakes", Object.class);
+        query.addWhere(or(eq("a", "1"), eq("b", "2")));
+        query.addOrder(order("magnitude", DESC));
+        query.setOffset(100);
+        query.setLimit(10);
+        query.setKeyset(":id");
+        assertEquals("select * where a = 1 or b = 2 order by :id limit 10", query.build());
+        query.seekAfter("row-it's");
+        assertEquals("select * where (a = 1 or b = 2) and :id > 'row-it''s' order by :id limit 10", query.build());
+        query.seekAfter(42);
+        assertEquals("select * where (a = 1 or b = 2) and :id > 42 order by :id limit 10", query.build());
+        query.setKeyset(null);
+        assertEquals("select * where a = 1 or b = 2 order by magnitude desc offset 100 limit 10", query.build());
+    }
+
+    public void testLiterals() {
+        assertExpression("'O''Brien'", literal("O'Brien"));
+        assertExpression("a = 'it''s'", eq(column("a"), literal("it's")));
+        assertExpression("42", literal(42));
+        assertExpression("3.5", literal(3.5));
+        assertExpression("0.0000125", literal(0.0000125));
+        assertExpression("12000000000", literal(1.2e10));
+        assertExpression("true", literal(true));
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2013, Calendar.JUNE, 1, 9, 5, 7);
+        calendar.set(Calendar.MILLISECOND, 30);
+        assertExpression("'2013-06-01T09:05:07.030'", literal(calendar.getTime()));
+        assertExpression("47.8, -122.2, 47.4, -122.5", literal(box(47.8, -122.2, 47.4, -122.5)));
+        try {
+            literal(Double.NaN);
+            fail("NaN rendered as a literal");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testDateLiteralFollowsDefaultTimeZone() {
+        TimeZone timeZone = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+            Calendar calendar = Calendar.getInstance();
+            calendar.clear();
+            calendar.set(2013, Calendar.JUNE, 1, 9, 5, 7);
+            assertExpression("'2013-06-01T09:05:07.000'", literal(calendar.getTime()));
+            TimeZone.setDefault(TimeZone.getTimeZone("GMT+02:00"));
+            assertExpression("'2013-06-01T11:05:07.000'", literal(calendar.getTime()));
+        } finally {
+            TimeZone.setDefault(timeZone);
+        }
+    }
+
+    public void testCanonicalForm() {
+        Query query = new Query("earthquakes", Object.class);
+        query.addWhere(gt("magnitude", "3"), parentheses(or(eq("region", "'b'"), eq("region", "'a'"))));
+        Query equivalent = new Query("earthquakes", Object.class);
+        equivalent.addWhere(parentheses(or(eq("region", "'a'"), eq("region", "'b'"))));
+        equivalent.addWhere(parentheses(and(gt("magnitude", "3"), gt("magnitude", "3"))));
+        assertEquals("select * where (region = 'a' or region = 'b') and magnitude > 3 offset 0 limit 25", equivalent.canonical());
+        assertEquals(equivalent.canonical(), query.canonical());
+        assertEquals(equivalent.fingerprint(), query.fingerprint());
+
+        Query other = new Query("earthquakes", Object.class);
+        other.addWhere(gt("magnitude", "3"), eq("region", "'b'"), eq("region", "'a'"));
+        assertFalse(other.fingerprint() == query.fingerprint());
+        assertEquals("a or b and c", CanonicalUtils.canonicalizeCondition("(c and b) or a"));
+        assertEquals("a between 1 and 2 and b", CanonicalUtils.canonicalizeCondition("a between 1 and 2 and b"));
+        assertEquals("a = 'x  and y' and b", CanonicalUtils.canonicalizeCondition("b and (a = 'x  and y')"));
+    }
+
+    public void testExpressionTree() {
+        Expression region = or(eq(column("region"), literal("a")), eq(column("region"), literal("b")));
+        Expression expression = and(region, not(isNull("magnitude")));
+        assertEquals(Expression.Kind.OPERATOR, expression.getKind());
+        assertEquals("and", expression.getName());
+        assertSame(region, expression.getOperands()[0]);
+        Expression equals = (Expression) region.getOperands()[1];
+        assertEquals(Expression.Kind.COLUMN, ((Expression) equals.getOperands()[0]).getKind());
+        assertEquals("b", ((Expression) equals.getOperands()[1]).getLiteral());
+        assertEquals("region = 'a' or region = 'b' and not magnitude is null", expression.build());
+        assertSame(expression.build(), expression.build());
+        assertSame(region.build(), region.build());
+        assertExpression("(region = 'a' or region = 'b') and x", and(parentheses(region), column("x")));
+        assertExpression("(a)", new Expression("a", true));
+    }
+
+    public void testRowCountQuery() {
+        Query query = new Query("earthquakes", Object.class);
+        query.addWhere(eq("a", "1"), gt("b", "2"));
+        query.addOrder(order("magnitude", DESC));
+        query.setOffset(100);
+        query.setKeyset(":id");
+        query.seekAfter(42);
+        assertEquals("select count(*) as row_count where a = 1 and b > 2", RowCount.query(query).build());
+        query.addGroup(column("a"));
+        try {
+            RowCount.query(query);
+            fail("Grouped queries are not counted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
 }
@@ -0,0 +1,126 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.socrata.android.client.DataTypesMapper;
+import com.socrata.android.client.JsonAdapter;
+import com.socrata.android.client.SodaEntity;
+import com.socrata.android.client.SodaEntityBinder;
+import com.socrata.android.client.SodaEntityBinders;
+import com.socrata.android.client.SodaField;
+import com.socrata.android.soql.datatypes.Location;
+import junit.framework.TestCase;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binders generated by soda-android-processor, which runs when the tests are compiled
+ */
+public class SodaEntityBinderTest extends TestCase {
+
+    public void testBinderIsGeneratedForEntities() throws Exception {
+        SodaEntityBinder<BinderModel> binder = SodaEntityBinders.getBinder(BinderModel.class);
+        assertNotNull("No binder generated, soda-android-processor must be on the test compile classpath", binder);
+        assertNotNull(binder.newInstance());
+        assertTrue(binder.indexOf("count") >= 0);
+        assertTrue(binder.indexOf("full_name") >= 0);
+        assertTrue(binder.indexOf("active") >= 0);
+        assertEquals(-1, binder.indexOf("name"));
+        assertEquals(-1, binder.indexOf("score"));
+        assertSame(binder, SodaEntityBinders.getBinder(BinderModel.class));
+    }
+
+    public void testGeneratedAndReflectiveFieldsAreBound() throws Exception {
+        JsonAdapter<BinderModel> adapter = new JsonAdapter<BinderModel>(BinderModel.class, new DataTypesMapper());
+        adapter.addFieldMappings("[\"count\",\"full_name\",\"active\",\"score\"]", "[\"number\",\"text\",\"checkbox\",\"number\"]");
+        BinderModel model = adapter.fromJsonObject(new JSONObject("{\"count\" : 3, \"full_name\" : \"Quake\", \"active\" : true, \"score\" : \"4.5\"}"));
+        assertEquals(3, model.getCount());
+        assertEquals("Quake", model.getName());
+        assertTrue(model.isActive());
+        assertEquals(4.5, model.getScore());
+    }
+
+    public void testGeneratedBinderMatchesReflectiveBinding() throws Exception {
+        assertNotNull(SodaEntityBinders.getBinder(DataTypeModel.class));
+        DataTypesMapper dataTypesMapper = new DataTypesMapper();
+        JsonAdapter<DataTypeModel> adapter = new JsonAdapter<DataTypeModel>(DataTypeModel.class, dataTypesMapper);
+        adapter.addFieldMappings(DataTypeConversionTest.fieldsJson, DataTypeConversionTest.typesJson);
+        JSONObject json = new JSONObject(DataTypeConversionTest.json);
+
+        DataTypeModel generated = adapter.fromJsonObject(json);
+        DataTypeModel reflective = bindReflectively(dataTypesMapper, json);
+        assertSameFields(reflective, generated);
+        assertEquals("Hello World", generated.getPlaintext());
+        assertEquals("Cell", generated.getPhone().getType());
+    }
+
+    public void testMissingBinderFallsBackToReflection() throws Exception {
+        assertNull(SodaEntityBinders.getBinder(Location.class));
+        JsonAdapter<Location> adapter = new DataTypesMapper().getEmbeddedAdapter(Location.class);
+        Location location = adapter.fromJsonObject(new JSONObject("{\"latitude\" : \"40.5\", \"longitude\" : \"-74.25\", \"needs_recoding\" : true}"));
+        assertEquals(40.5, location.getLatitude());
+        assertEquals(-74.25, location.getLongitude());
+        assertTrue(location.isNeedsRecoding());
+    }
+
+    /**
+     * Binds a row the way the reflective plan does, converting each value and setting the field through reflection
+     */
+    private static DataTypeModel bindReflectively(DataTypesMapper dataTypesMapper, JSONObject json) throws Exception {
+        Map<String, String> types = new HashMap<String, String>();
+        JSONArray fields = new JSONArray(DataTypeConversionTest.fieldsJson);
+        JSONArray typeNames = new JSONArray(DataTypeConversionTest.typesJson);
+        for (int i = 0; i < fields.length(); i++) {
+            types.put(fields.getString(i), typeNames.getString(i));
+        }
+        DataTypeModel model = new DataTypeModel();
+        for (Field field : DataTypeModel.class.getDeclaredFields()) {
+            String sodaField = field.isAnnotationPresent(SodaField.class) ? field.getAnnotation(SodaField.class).value() : field.getName();
+            Object value = json.opt(sodaField);
+            if (value != null && types.containsKey(sodaField)) {
+                field.setAccessible(true);
+                field.set(model, dataTypesMapper.getValue(field, types.get(sodaField), value));
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Compares every instance field, recursing into embedded entities
+     */
+    private static void assertSameFields(Object expected, Object actual) throws Exception {
+        assertEquals(expected == null, actual == null);
+        if (expected == null) {
+            return;
+        }
+        for (Field field : expected.getClass().getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            field.setAccessible(true);
+            Object expectedValue = field.get(expected);
+            Object actualValue = field.get(actual);
+            if (field.getType().isAnnotationPresent(SodaEntity.class)) {
+                assertSameFields(expectedValue, actualValue);
+            } else {
+                assertEquals(field.getName(), expectedValue, actualValue);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.socrata.android.client.Consumer;
+import org.apache.http.client.HttpClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Consumer for unittest that downloads from a {@link TestHttpClient}. Requests are queued until
+ * {@link #runPending()} is invoked and callbacks run on the thread that decoded the response
+ */
+public class TestConsumer extends Consumer {
+
+    private final TestHttpClient httpClient = new TestHttpClient();
+
+    private final List<Runnable> pending = new ArrayList<Runnable>();
+
+    public TestConsumer() {
+        super("soda.demo.socrata.com");
+        setExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                pending.add(command);
+            }
+        });
+        setCallbackExecutor(SYNCHRONOUS);
+    }
+
+    @Override
+    protected HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public TestHttpClient getTestHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * @return the number of queued requests
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Runs the queued requests on the calling thread
+     */
+    public void runPending() {
+        List<Runnable> requests = new ArrayList<Runnable>(pending);
+        pending.clear();
+        for (Runnable request : requests) {
+            request.run();
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Http client for unittest that records requests and answers all of them with the same canned response
+ */
+public class TestHttpClient implements HttpClient {
+
+    private final List<HttpRequest> requests = new ArrayList<HttpRequest>();
+
+    private final Map<String, String> headers = new LinkedHashMap<String, String>();
+
+    private int status = 200;
+
+    private String body = "[]";
+
+    public synchronized void setResponse(int status, String body) {
+        this.status = status;
+        this.body = body;
+    }
+
+    public synchronized void setHeader(String name, String value) {
+        headers.put(name, value);
+    }
+
+    /**
+     * Sets the SODA field and type headers of the response
+     */
+    public void setFields(String fields, String types) {
+        setHeader("X-SODA2-Fields", fields);
+        setHeader("X-SODA2-Types", types);
+    }
+
+    public synchronized List<HttpRequest> getRequests() {
+        return new ArrayList<HttpRequest>(requests);
+    }
+
+    @Override
+    public synchronized HttpResponse execute(HttpHost target, HttpRequest request, HttpContext context) throws IOException {
+        requests.add(request);
+        BasicHttpResponse response = new BasicHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, status, "Test"));
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            response.addHeader(header.getKey(), header.getValue());
+        }
+        if (body != null) {
+            response.setEntity(new StringEntity(body, "UTF-8"));
+        }
+        return response;
+    }
+
+    @Override
+    public HttpResponse execute(HttpUriRequest request) throws IOException {
+        return execute(null, request, (HttpContext) null);
+    }
+
+    @Override
+    public HttpResponse execute(HttpUriRequest request, HttpContext context) throws IOException {
+        return execute(null, request, context);
+    }
+
+    @Override
+    public HttpResponse execute(HttpHost target, HttpRequest request) throws IOException {
+        return execute(target, request, (HttpContext) null);
+    }
+
+    @Override
+    public <T> T execute(HttpUriRequest request, ResponseHandler<? extends T> handler) throws IOException {
+        return handler.handleResponse(execute(request));
+    }
+
+    @Override
+    public <T> T execute(HttpUriRequest request, ResponseHandler<? extends T> handler, HttpContext context) throws IOException {
+        return handler.handleResponse(execute(request, context));
+    }
+
+    @Override
+    public <T> T execute(HttpHost target, HttpRequest request, ResponseHandler<? extends T> handler) throws IOException {
+        return handler.handleResponse(execute(target, request));
+    }
+
+    @Override
+    public <T> T execute(HttpHost target, HttpRequest request, ResponseHandler<? extends T> handler, HttpContext context) throws IOException, ClientProtocolException {
+        return handler.handleResponse(execute(target, request, context));
+    }
+
+    @Override
+    public HttpParams getParams() {
+        return new BasicHttpParams();
+    }
+
+    @Override
+    public ClientConnectionManager getConnectionManager() {
+        return null;
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.socrata.android.client.RequestHandle;
+
+/**
+ * Request handle for unittest that records cancellation
+ */
+public class TestRequestHandle implements RequestHandle {
+
+    private boolean cancelled;
+
+    private boolean done;
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+        return done || cancelled;
+    }
+
+    public void setDone(boolean done) {
+        this.done = done;
+    }
+
+}
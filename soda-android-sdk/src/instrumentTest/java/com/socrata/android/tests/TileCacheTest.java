@@ -0,0 +1,90 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.tests;
+
+import com.socrata.android.soql.datatypes.GeoBox;
+import com.socrata.android.ui.map.Tile;
+import com.socrata.android.ui.map.TileCache;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Slippy tile math and the spatial tile cache
+ */
+public class TileCacheTest extends TestCase {
+
+    public void testTileAt() {
+        assertEquals(new Tile(0, 0, 0), Tile.at(47.6, -122.3, 0));
+        assertEquals(new Tile(10, 164, 357), Tile.at(47.6, -122.3, 10));
+        assertEquals(new Tile(1, 1, 1), Tile.at(-89, 180, 1));
+    }
+
+    public void testTileBounds() {
+        Tile tile = Tile.at(47.6, -122.3, 10);
+        assertTrue(tile.getNorth() > 47.6 && tile.getSouth() < 47.6);
+        assertTrue(tile.getWest() < -122.3 && tile.getEast() > -122.3);
+        assertEquals(Tile.MAX_LATITUDE, new Tile(0, 0, 0).getNorth(), 1e-6);
+    }
+
+    public void testCoveringTiles() {
+        List<Tile> tiles = TileCache.getTiles(47.7, -122.2, 47.5, -122.5, 10);
+        assertEquals(Arrays.asList(new Tile(10, 163, 357), new Tile(10, 164, 357), new Tile(10, 163, 358), new Tile(10, 164, 358)), tiles);
+        List<Tile> wrapped = TileCache.getTiles(10, -179, -10, 179, 2);
+        assertEquals(Arrays.asList(new Tile(2, 3, 1), new Tile(2, 0, 1), new Tile(2, 3, 2), new Tile(2, 0, 2)), wrapped);
+    }
+
+    public void testMergeRuns() {
+        List<List<Tile>> runs = TileCache.mergeRuns(Arrays.asList(new Tile(5, 3, 1), new Tile(5, 1, 1), new Tile(5, 2, 1), new Tile(5, 5, 1), new Tile(5, 1, 2)));
+        assertEquals(3, runs.size());
+        assertEquals(Arrays.asList(new Tile(5, 1, 1), new Tile(5, 2, 1), new Tile(5, 3, 1)), runs.get(0));
+        assertEquals(Arrays.asList(new Tile(5, 5, 1)), runs.get(1));
+        assertEquals(Arrays.asList(new Tile(5, 1, 2)), runs.get(2));
+        GeoBox box = TileCache.toGeoBox(runs.get(0));
+        assertEquals(new Tile(5, 1, 1).getWest(), box.getWest());
+        assertEquals(new Tile(5, 3, 1).getEast(), box.getEast());
+    }
+
+    public void testSplitRun() {
+        List<Tile> run = Arrays.asList(new Tile(5, 1, 1), new Tile(5, 2, 1), new Tile(5, 3, 1));
+        List<List<Tile>> halves = TileCache.splitRun(run);
+        assertEquals(Arrays.asList(new Tile(5, 1, 1)), halves.get(0));
+        assertEquals(Arrays.asList(new Tile(5, 2, 1), new Tile(5, 3, 1)), halves.get(1));
+    }
+
+    public void testTruncatedResults() {
+        assertTrue(TileCache.isTruncated(25, 25));
+        assertFalse(TileCache.isTruncated(24, 25));
+        assertFalse(TileCache.isTruncated(5000, null));
+    }
+
+    public void testClear() {
+        TileCache<String> cache = new TileCache<String>(6);
+        cache.put(new Tile(1, 0, 0), Arrays.asList("a"));
+        cache.clear();
+        assertFalse(cache.contains(new Tile(1, 0, 0)));
+    }
+
+    public void testEviction() {
+        TileCache<String> cache = new TileCache<String>(6);
+        cache.put(new Tile(1, 0, 0), Arrays.asList("a", "b"));
+        cache.put(new Tile(1, 1, 0), Arrays.asList("c"));
+        assertTrue(cache.contains(new Tile(1, 0, 0)));
+        cache.put(new Tile(1, 0, 1), Arrays.asList("d"));
+        assertTrue(cache.contains(new Tile(1, 0, 0)));
+        assertFalse(cache.contains(new Tile(1, 1, 0)));
+        assertEquals(Arrays.asList("d"), cache.get(new Tile(1, 0, 1)));
+    }
+
+}
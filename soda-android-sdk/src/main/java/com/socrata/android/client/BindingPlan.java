@@ -0,0 +1,186 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client;
+
+import com.socrata.android.client.converters.DataTypeConverter;
+import org.json.JSONObject;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A precompiled plan to bind JSON rows to a model class for a given set of SODA fields and types.
+ * Every JSON key is resolved once to its target field and converter so binding a row is a plain loop over
+ * the resolved slots with no map lookups or annotation reflection. Values are assigned through the generated
+ * {@link SodaEntityBinder} of the model class when there is one and through reflection otherwise.
+ * Plans are immutable and cached by their data types mapper per model class and field types.
+ *
+ * @param <T> the type of model
+ */
+@SuppressWarnings("unchecked")
+final class BindingPlan<T> {
+
+    /**
+     * The target model class
+     */
+    private final Class<T> target;
+
+    /**
+     * Generated binder for the target or null to bind through reflection
+     */
+    private final SodaEntityBinder<T> binder;
+
+    /**
+     * Data type mapper the converters were resolved from
+     */
+    private final DataTypesMapper dataTypesMapper;
+
+    /**
+     * The JSON keys of each slot
+     */
+    private final String[] keys;
+
+    /**
+     * The SODA types of each slot
+     */
+    private final String[] types;
+
+    /**
+     * The target fields of each slot
+     */
+    private final Field[] fields;
+
+    /**
+     * The resolved converters of each slot, null when raw values are written as they are
+     */
+    private final DataTypeConverter[] converters;
+
+    /**
+     * The binder index of each slot, -1 when the value is set through reflection
+     */
+    private final int[] binderIndexes;
+
+    /**
+     * Private constructor, use {@link #get(Class, DataTypesMapper, Map, Map)}
+     */
+    private BindingPlan(Class<T> target, DataTypesMapper dataTypesMapper, Map<String, String> fieldsTypesMap, Map<String, Field> fieldMappings) {
+        if (!target.isAnnotationPresent(SodaEntity.class)) {
+            throw new AssertionError("Target is not annotated with @SodaEntity");
+        }
+        this.target = target;
+        this.binder = SodaEntityBinders.getBinder(target);
+        this.dataTypesMapper = dataTypesMapper;
+        List<String> slots = new ArrayList<String>(fieldsTypesMap.size());
+        for (String field : fieldsTypesMap.keySet()) {
+            if (fieldMappings.get(field) != null) {
+                slots.add(field);
+            }
+        }
+        int size = slots.size();
+        keys = new String[size];
+        types = new String[size];
+        fields = new Field[size];
+        converters = new DataTypeConverter[size];
+        binderIndexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = slots.get(i);
+            types[i] = fieldsTypesMap.get(keys[i]);
+            fields[i] = fieldMappings.get(keys[i]);
+            converters[i] = dataTypesMapper.getConverter(fields[i], types[i]);
+            binderIndexes[i] = binder != null ? binder.indexOf(keys[i]) : -1;
+        }
+    }
+
+    /**
+     * Looks up or compiles the plan for a model class and its field types
+     *
+     * @param target          the target model class
+     * @param dataTypesMapper data type mapper that converts JSON field values to their java representation
+     * @param fieldsTypesMap  SODA field names to SODA types
+     * @param fieldMappings   SODA field names to Java fields
+     * @param <T>             the type of model
+     * @return the binding plan
+     */
+    static <T> BindingPlan<T> get(Class<T> target, DataTypesMapper dataTypesMapper, Map<String, String> fieldsTypesMap, Map<String, Field> fieldMappings) {
+        Key key = new Key(target, fieldsTypesMap);
+        BindingPlan<?> plan = dataTypesMapper.getBindingPlan(key);
+        if (plan == null) {
+            plan = dataTypesMapper.putBindingPlan(key, new BindingPlan<T>(target, dataTypesMapper, key.fieldsTypesMap, fieldMappings));
+        }
+        return (BindingPlan<T>) plan;
+    }
+
+    /**
+     * Binds a JSON row to a new model instance
+     *
+     * @param json the JSON row
+     * @return the model
+     * @throws IllegalAccessException
+     * @throws InstantiationException
+     */
+    T bind(JSONObject json) throws IllegalAccessException, InstantiationException {
+        T model = binder != null ? binder.newInstance() : target.newInstance();
+        for (int i = 0; i < keys.length; i++) {
+            Object jsonValue = json.opt(keys[i]);
+            if (jsonValue != null) {
+                DataTypeConverter converter = converters[i];
+                Object value = converter != null ? converter.getValue(dataTypesMapper, fields[i], types[i], jsonValue) : jsonValue;
+                if (binderIndexes[i] >= 0) {
+                    binder.set(model, binderIndexes[i], value);
+                } else {
+                    fields[i].set(model, value);
+                }
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Cache key of a plan within its data types mapper
+     */
+    private static final class Key {
+
+        private final Class<?> target;
+
+        private final Map<String, String> fieldsTypesMap;
+
+        private final int hashCode;
+
+        private Key(Class<?> target, Map<String, String> fieldsTypesMap) {
+            this.target = target;
+            this.fieldsTypesMap = new HashMap<String, String>(fieldsTypesMap);
+            this.hashCode = 31 * target.hashCode() + this.fieldsTypesMap.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return target == key.target && fieldsTypesMap.equals(key.fieldsTypesMap);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+}
@@ -12,17 +12,58 @@
 
 package com.socrata.android.client;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import com.loopj.android.http.AsyncHttpClient;
 import com.loopj.android.http.RequestParams;
+import com.socrata.android.client.cache.CacheStats;
+import com.socrata.android.client.cache.ResponseCache;
+import com.socrata.android.soql.PreparedQuery;
 import com.socrata.android.soql.Query;
+import com.socrata.android.soql.utils.CanonicalUtils;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Main interface to fetch result from the SODA API
  */
 public class Consumer {
 
+    /**
+     * Default number of threads requests are downloaded and decoded on
+     */
+    public static final int DEFAULT_THREAD_POOL_SIZE = 4;
+
+    /**
+     * An executor that runs tasks on the calling thread. When used as both the consumer executor and the callback
+     * executor requests block until their callbacks have been invoked on the calling thread, e.g. in background services
+     */
+    public static final Executor SYNCHRONOUS = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    /**
+     * Pool shared by every consumer that keeps the default executor so consumers created on each onCreate don't
+     * start threads of their own
+     */
+    private static final ExecutorService DEFAULT_EXECUTOR = newThreadPool(DEFAULT_THREAD_POOL_SIZE);
+
     /**
      * The domain this consumer is fetching data from
      */
@@ -43,22 +84,225 @@ public class Consumer {
      */
     private AsyncHttpClient client = new AsyncHttpClient();
 
+    /**
+     * Executor where requests are downloaded and decoded, the shared default pool unless replaced
+     */
+    private Executor executor = DEFAULT_EXECUTOR;
+
+    /**
+     * Executor where results are delivered, the main thread by default
+     */
+    private Executor callbackExecutor = new Executor() {
+
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(Runnable command) {
+            handler.post(command);
+        }
+    };
+
     /**
      * Default overridable DataTypesMapper
      */
     private DataTypesMapper dataTypesMapper = new DataTypesMapper();
 
     /**
-     * Performs an async get request
+     * Optional response cache, responses are not cached when null
+     */
+    private ResponseCache responseCache;
+
+    /**
+     * Max age in milliseconds a cached response is served without revalidating it with the server
+     */
+    private long cacheMaxAge;
+
+    /**
+     * Response cache hit and miss counters
+     */
+    private final CacheStats cacheStats = new CacheStats();
+
+    /**
+     * In flight callback requests by cache key and mapping, identical requests attach to them. Keys hold the
+     * canonical form of queries rather than a hash of it so distinct queries never share a request
+     */
+    private final ConcurrentMap<String, SodaCallbackStreamingRequest<?>> inFlight = new ConcurrentHashMap<String, SodaCallbackStreamingRequest<?>>();
+
+    /**
+     * Number of requests that attached to an identical in flight request instead of hitting the network
+     */
+    private final AtomicLong coalescedRequests = new AtomicLong();
+
+    /**
+     * Performs an async get request decoding the response rows as they are streamed from the server
+     *
+     * @param url      relative url
+     * @param params   params
+     * @param cacheKey the key of the request in the response cache
+     * @param mapping  the model class each row will be unmarshalled to
+     * @param callback a callback implementation where results will be delivered
+     * @param <T>      the type of results expected back after unmarshalling the response
+     * @return a handle to cancel the request
+     */
+    @SuppressWarnings("unchecked")
+    private <T> RequestHandle stream(String url, RequestParams params, String cacheKey, Class<?> mapping, Callback<T> callback) {
+        HttpGet request = newRequest(url, params);
+        String flightKey = cacheKey + "#" + (mapping != null ? mapping.getName() : "");
+        SodaCallbackStreamingRequest<T> streamingRequest;
+        synchronized (inFlight) {
+            SodaCallbackStreamingRequest<T> existing = (SodaCallbackStreamingRequest<T>) inFlight.get(flightKey);
+            if (existing != null && existing.attach(callback)) {
+                coalescedRequests.incrementAndGet();
+                Log.d("socrata", String.format("Consumer : coalesced %s", flightKey));
+                return existing.newHandle(callback);
+            }
+            streamingRequest = new SodaCallbackStreamingRequest<T>(getHttpClient(), client.getHttpContext(), request, newJsonAdapter(mapping), callbackExecutor, callback);
+            streamingRequest.setInFlight(inFlight, flightKey);
+        }
+        execute(streamingRequest, cacheKey);
+        return streamingRequest.newHandle(callback);
+    }
+
+    /**
+     * Performs an async get request delivering each response row as soon as it is streamed from the server
+     *
+     * @param url      relative url
+     * @param params   params
+     * @param cacheKey the key of the request in the response cache
+     * @param mapping  the model class each row will be unmarshalled to
+     * @param callback a row callback implementation where rows will be delivered
+     * @param <T>      the type of each row expected back after unmarshalling the response
+     * @return a handle to cancel the request
+     */
+    private <T> RequestHandle stream(String url, RequestParams params, String cacheKey, Class<T> mapping, RowCallback<T> callback) {
+        HttpGet request = newRequest(url, params);
+        SodaRowStreamingRequest<T> streamingRequest = new SodaRowStreamingRequest<T>(getHttpClient(), client.getHttpContext(), request, newJsonAdapter(mapping), callbackExecutor, callback);
+        execute(streamingRequest, cacheKey);
+        return streamingRequest;
+    }
+
+    /**
+     * Private helper that runs a streaming request in the executor through the response cache if there is one
+     *
+     * @param request  the request
+     * @param cacheKey the key of the request in the response cache
+     */
+    private void execute(SodaStreamingRequest request, String cacheKey) {
+        execute(request, cacheKey, executor);
+    }
+
+    /**
+     * Private helper that runs a streaming request in an executor through the response cache if there is one
+     *
+     * @param request  the request
+     * @param cacheKey the key of the request in the response cache
+     * @param runner   the executor
+     */
+    private void execute(SodaStreamingRequest request, String cacheKey, Executor runner) {
+        if (responseCache != null) {
+            request.setCache(responseCache, cacheKey, cacheMaxAge, cacheStats);
+        }
+        runner.execute(request);
+    }
+
+    /**
+     * Performs a get request completing a future with the response, the response is decoded on the runner and
+     * the future completed right there without going through the callback executor
+     *
+     * @param url      relative url
+     * @param params   params
+     * @param cacheKey the key of the request in the response cache
+     * @param mapping  the model class each row will be unmarshalled to
+     * @param runner   the executor the request runs on, {@link #SYNCHRONOUS} to block the calling thread
+     * @param <T>      the type of results expected back after unmarshalling the response
+     * @return the future response
+     */
+    private <T> ResponseFuture<T> submit(String url, RequestParams params, String cacheKey, Class<?> mapping, Executor runner) {
+        final ResponseFuture<T> future = new ResponseFuture<T>();
+        SodaCallbackStreamingRequest<T> request = new SodaCallbackStreamingRequest<T>(getHttpClient(), client.getHttpContext(), newRequest(url, params), newJsonAdapter(mapping), SYNCHRONOUS, new Callback<T>() {
+            @Override
+            public void onResults(Response<T> response) {
+                future.set(response);
+            }
+        });
+        future.setRequest(request);
+        execute(request, cacheKey, runner);
+        return future;
+    }
+
+    /**
+     * Creates a bounded pool of daemon threads suitable as a consumer executor. Its threads are kept until the pool
+     * is shut down, so share it between consumers instead of creating one per consumer
+     *
+     * @param threads the number of threads
+     * @return the thread pool
+     */
+    public static ExecutorService newThreadPool(int threads) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "soda-consumer-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Private helper that builds the response cache key of a dataset request out of the domain, the dataset,
+     * the app token and the canonical form of the SoQL query or the normalized value of other params.
+     * Equivalent queries built differently share cache entries and in flight requests, distinct queries never do
      *
-     * @param url             relative url
-     * @param params          params
-     * @param responseHandler handler
-     * @param <T>             the type of results expected back after unmarshalling the response
+     * @param dataset the remote dataset
+     * @param param   the query param name or null
+     * @param value   the query param value
+     * @return the cache key
+     */
+    private String cacheKey(String dataset, String param, String value) {
+        StringBuilder key = new StringBuilder(domain).append('/').append(dataset);
+        if (param != null) {
+            key.append('?').append(param).append('=');
+            if ("$query".equals(param)) {
+                key.append(CanonicalUtils.canonicalize(value));
+            } else {
+                key.append(CanonicalUtils.normalizeWhitespace(value));
+            }
+        }
+        return key.append('#').append(token != null ? token : "").toString();
+    }
+
+    /**
+     * @return the http client requests are downloaded with, the client of the internal async http client by default
      */
-    private <T> void get(String url, RequestParams params, SodaCallbackResponseHandler<T> responseHandler) {
-        Log.d("socrata", String.format("Consumer : %s params: %s", url, params));
-        client.get(getAbsoluteUrl(url), params, responseHandler);
+    protected HttpClient getHttpClient() {
+        return client.getHttpClient();
+    }
+
+    /**
+     * Private helper that creates a get request to an absolute url including the params
+     *
+     * @param url    relative url
+     * @param params params
+     * @return the request
+     */
+    private HttpGet newRequest(String url, RequestParams params) {
+        String absoluteUrl = AsyncHttpClient.getUrlWithQueryString(getAbsoluteUrl(url), params);
+        Log.d("socrata", String.format("Consumer : %s", absoluteUrl));
+        return new HttpGet(absoluteUrl);
+    }
+
+    /**
+     * Private helper that creates a JSON adapter for a mapping
+     *
+     * @param mapping the model class
+     * @return the JSON adapter
+     */
+    @SuppressWarnings("unchecked")
+    private JsonAdapter newJsonAdapter(Class<?> mapping) {
+        return new JsonAdapter(mapping, dataTypesMapper);
     }
 
     /**
@@ -122,6 +366,95 @@ public class Consumer {
         this.dataTypesMapper = dataTypesMapper;
     }
 
+    /**
+     * @return the executor where requests are downloaded and decoded
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the executor where requests are downloaded and decoded, by default a pool of
+     * {@link #DEFAULT_THREAD_POOL_SIZE} threads shared by all consumers. Its bound caps the number of concurrent
+     * downloads. An executor created with {@link #newThreadPool(int)} is owned by the caller, who should shut it down
+     * when it is no longer used.
+     *
+     * @param executor the executor, e.g. {@link #newThreadPool(int)} or {@link #SYNCHRONOUS} to run requests on
+     *                 the calling thread
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return the executor where results are delivered to callbacks
+     */
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    /**
+     * Sets the executor where results are delivered to callbacks, the main thread by default.
+     * Only the delivery runs there, responses are decoded and mapped on the consumer executor.
+     *
+     * @param callbackExecutor the executor, e.g. {@link #SYNCHRONOUS} to deliver results on the thread that
+     *                         decoded them
+     */
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * @return the response cache or null if responses are not cached
+     */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Sets the cache where dataset query responses are stored, e.g. a TieredResponseCache of a MemoryResponseCache
+     * and a DiskResponseCache. Cached responses older than the cache max age are revalidated with the server through
+     * their ETag or Last-Modified validators and reused when it answers 304 Not Modified.
+     *
+     * @param responseCache the response cache or null to disable caching
+     */
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * @return max age in milliseconds a cached response is served without revalidating it with the server
+     */
+    public long getCacheMaxAge() {
+        return cacheMaxAge;
+    }
+
+    /**
+     * @param cacheMaxAge max age in milliseconds a cached response is served without revalidating it with the server,
+     *                    0 to always revalidate. Defaults to 0
+     */
+    public void setCacheMaxAge(long cacheMaxAge) {
+        this.cacheMaxAge = cacheMaxAge;
+    }
+
+    /**
+     * @return the response cache hit and miss counters
+     */
+    public CacheStats getCacheStats() {
+        return cacheStats;
+    }
+
+    /**
+     * Identical getObjects and searchObjects requests issued while one is in flight, e.g. from a list and a map
+     * showing the same dataset, attach to the in flight request and receive the same response. Queries are compared
+     * by their canonical form so equivalent queries built differently are coalesced too
+     *
+     * @return the number of requests that were coalesced into an in flight request
+     */
+    public long getCoalescedRequestCount() {
+        return coalescedRequests.get();
+    }
+
     /**
      * Asynchronously fetches a single object from a remote dataset optionally mapping it to an object
      *
@@ -130,10 +463,10 @@ public class Consumer {
      * @param mapping  an optional mapping to unmarshall json to instances of the mapping class
      * @param callback a callback implementation where results will be delivered
      * @param <T>      the type of result e.g. EarthQuake
+     * @return a handle to cancel the request
      */
-    public <T> void getObject(String dataset, String id, Class<T> mapping, Callback<T> callback) {
-        SodaCallbackResponseHandler<T> handler = new SodaCallbackResponseHandler<T>(mapping, callback, dataTypesMapper);
-        get(String.format("/%s/%s", dataset, id), null, handler);
+    public <T> RequestHandle getObject(String dataset, String id, Class<T> mapping, Callback<T> callback) {
+        return stream(String.format("/%s/%s", dataset, id), null, cacheKey(dataset + "/" + id, null, null), mapping, callback);
     }
 
 
@@ -145,10 +478,10 @@ public class Consumer {
      * @param mapping  an optional mapping to unmarshall json to instances of the mapping class
      * @param callback a callback implementation where results will be delivered
      * @param <T>      the type of result e.g. List<EarthQuake>
+     * @return a handle to cancel the request
      */
-    public <T> void getObjects(String dataset, Class<?> mapping, Callback<T> callback) {
-        SodaCallbackResponseHandler<T> handler = new SodaCallbackResponseHandler<T>(mapping, callback, dataTypesMapper);
-        get(String.format("/%s", dataset), null, handler);
+    public <T> RequestHandle getObjects(String dataset, Class<?> mapping, Callback<T> callback) {
+        return stream(String.format("/%s", dataset), null, cacheKey(dataset, null, null), mapping, callback);
     }
 
 
@@ -161,12 +494,12 @@ public class Consumer {
      * @param mapping  an optional mapping to unmarshall json to instances of the mapping class
      * @param callback a callback implementation where results will be delivered
      * @param <T>      the type of result e.g. List<EarthQuake>
+     * @return a handle to cancel the request
      */
-    public <T> void getObjects(String dataset, String query, Class<?> mapping, Callback<T> callback) {
-        SodaCallbackResponseHandler<T> handler = new SodaCallbackResponseHandler<T>(mapping, callback, dataTypesMapper);
+    public <T> RequestHandle getObjects(String dataset, String query, Class<?> mapping, Callback<T> callback) {
         RequestParams params = new RequestParams();
         params.put("$query", query);
-        get(String.format("/%s", dataset), params, handler);
+        return stream(String.format("/%s", dataset), params, cacheKey(dataset, "$query", query), mapping, callback);
     }
 
 
@@ -177,9 +510,132 @@ public class Consumer {
      * @param query    a typed query containing mapping and dataset information
      * @param callback a callback implementation where results will be delivered
      * @param <T>      the type of result e.g. List<EarthQuake>
+     * @return a handle to cancel the request
+     */
+    public <T> RequestHandle getObjects(Query query, Callback<T> callback) {
+        return getObjects(query.getDataset(), query.build(), query.getMapping(), callback);
+    }
+
+    /**
+     * Asynchronously fetches all remote dataset objects matching a prepared SOQL query with the values currently bound
+     * mapping the results to a list where each element corresponds to the mapping result parameter
+     *
+     * @param query    a prepared query containing mapping and dataset information
+     * @param callback a callback implementation where results will be delivered
+     * @param <T>      the type of result e.g. List<EarthQuake>
+     * @return a handle to cancel the request
+     */
+    public <T> RequestHandle getObjects(PreparedQuery query, Callback<T> callback) {
+        return getObjects(query.getDataset(), query.build(), query.getMapping(), callback);
+    }
+
+    /**
+     * Asynchronously fetches every remote dataset object matching a SOQL query expressed as a SODAQuery by splitting
+     * the results into pages of a fixed size and requesting up to a number of pages at once. Pages are reassembled in
+     * order and delivered as a single list once a page comes back with fewer rows than the page size.
+     * Paging starts at the query offset and ignores the query limit. Queries without an order are ordered by :id
+     * so pages are stable. Keyset paginated queries are fetched sequentially, one page after the other.
+     *
+     * @param query       a typed query containing mapping and dataset information
+     * @param pageSize    the number of rows per page request
+     * @param parallelism the max number of page requests in flight
+     * @param callback    a callback implementation where all results will be delivered
+     * @param <T>         the type of each result e.g. EarthQuake
+     * @return a handle to cancel the page requests
+     */
+    public <T> RequestHandle fetchAll(Query query, int pageSize, int parallelism, Callback<List<T>> callback) {
+        return new PageFetcher<T>(this, query, pageSize, parallelism, callback).start();
+    }
+
+    /**
+     * Asynchronously counts the remote dataset objects matching a SOQL query expressed as a SODAQuery with a single
+     * 'select count(*)' request sharing the query filters, without fetching the rows
+     *
+     * @param query    a query whose filters are counted, its order, offset and limit are ignored
+     * @param callback a callback implementation where the total will be delivered
+     * @return a handle to cancel the request
+     * @throws IllegalArgumentException if the query is grouped
+     * @see RowCount#query(Query)
+     */
+    public RequestHandle count(Query query, final Callback<Long> callback) {
+        return getObjects(RowCount.query(query), new Callback<List<RowCount>>() {
+            @Override
+            public void onResults(Response<List<RowCount>> response) {
+                callback.onResults(RowCount.toTotal(response));
+            }
+        });
+    }
+
+    /**
+     * Counts the remote dataset objects matching a SOQL query expressed as a SODAQuery blocking the calling thread
+     * until the total is available. It must not be called from the main thread.
+     *
+     * @param query a query whose filters are counted, its order, offset and limit are ignored
+     * @return the response with the total
+     * @throws IllegalArgumentException if the query is grouped
+     */
+    public Response<Long> countSync(Query query) {
+        return RowCount.toTotal(this.<RowCount>getObjectsSync(RowCount.query(query)));
+    }
+
+    /**
+     * Fetches a single object from a remote dataset blocking the calling thread until it is mapped.
+     * It must not be called from the main thread.
+     *
+     * @param dataset the remote dataset
+     * @param id      the object id
+     * @param mapping an optional mapping to unmarshall json to instances of the mapping class
+     * @param <T>     the type of result e.g. EarthQuake
+     * @return the response
      */
-    public <T> void getObjects(Query query, Callback<T> callback) {
-        getObjects(query.getDataset(), query.build(), query.getMapping(), callback);
+    public <T> Response<T> getObjectSync(String dataset, String id, Class<T> mapping) {
+        return this.<T>submit(String.format("/%s/%s", dataset, id), null, cacheKey(dataset + "/" + id, null, null), mapping, SYNCHRONOUS).getNow();
+    }
+
+    /**
+     * Fetches all remote dataset objects matching a SOQL query expressed as a SODAQuery blocking the calling thread
+     * until they are mapped. It must not be called from the main thread.
+     *
+     * @param query a typed query containing mapping and dataset information
+     * @param <T>   the type of each result e.g. EarthQuake
+     * @return the response
+     */
+    public <T> Response<List<T>> getObjectsSync(Query query) {
+        return this.<T>getObjectsFuture(query, SYNCHRONOUS).getNow();
+    }
+
+    /**
+     * Fetches a single object from a remote dataset on the consumer executor
+     *
+     * @param dataset the remote dataset
+     * @param id      the object id
+     * @param mapping an optional mapping to unmarshall json to instances of the mapping class
+     * @param <T>     the type of result e.g. EarthQuake
+     * @return the future response, cancelling it cancels the request
+     */
+    public <T> ResponseFuture<T> getObjectFuture(String dataset, String id, Class<T> mapping) {
+        return submit(String.format("/%s/%s", dataset, id), null, cacheKey(dataset + "/" + id, null, null), mapping, executor);
+    }
+
+    /**
+     * Fetches all remote dataset objects matching a SOQL query expressed as a SODAQuery on the consumer executor
+     *
+     * @param query a typed query containing mapping and dataset information
+     * @param <T>   the type of each result e.g. EarthQuake
+     * @return the future response, cancelling it cancels the request
+     */
+    public <T> ResponseFuture<List<T>> getObjectsFuture(Query query) {
+        return getObjectsFuture(query, executor);
+    }
+
+    /**
+     * Private helper that fetches the objects of a query on an executor
+     */
+    private <T> ResponseFuture<List<T>> getObjectsFuture(Query query, Executor runner) {
+        String soql = query.build();
+        RequestParams params = new RequestParams();
+        params.put("$query", soql);
+        return submit(String.format("/%s", query.getDataset()), params, cacheKey(query.getDataset(), "$query", soql), query.getMapping(), runner);
     }
 
     /**
@@ -191,12 +647,48 @@ public class Consumer {
      * @param mapping  an optional mapping to unmarshall json to instances of the mapping class
      * @param callback a callback implementation where results will be delivered
      * @param <T>      the type of result e.g. List<EarthQuake>
+     * @return a handle to cancel the request
      */
-    public <T> void searchObjects(String dataset, String keywords, Class<?> mapping, Callback<T> callback) {
-        SodaCallbackResponseHandler<T> handler = new SodaCallbackResponseHandler<T>(mapping, callback, dataTypesMapper);
+    public <T> RequestHandle searchObjects(String dataset, String keywords, Class<?> mapping, Callback<T> callback) {
         RequestParams params = new RequestParams();
         params.put("$s", keywords);
-        get(String.format("/%s", dataset), params, handler);
+        return stream(String.format("/%s", dataset), params, cacheKey(dataset, "$s", keywords), mapping, callback);
+    }
+
+    /**
+     * Asynchronously streams all remote dataset objects matching a SOQL query expressed as a String delivering
+     * each row to the callback as soon as it is downloaded and mapped, without holding the whole result in memory.
+     * Decoding pauses while a bounded number of rows wait in the callback executor, so a slow main thread slows the
+     * download down instead of queueing the result. Batch jobs over large results should run with
+     * {@link #SYNCHRONOUS} as callback executor so rows are handed over on the decoding thread.
+     * The callback executor must not run on the consumer executor threads or decoding may wait on itself
+     *
+     * @param dataset  the remote dataset
+     * @param query    a free form SODA query as a string
+     * @param mapping  the class each row will be unmarshalled to
+     * @param callback a row callback implementation where rows will be delivered
+     * @param <T>      the type of each row e.g. EarthQuake
+     * @return a handle to cancel the request
+     */
+    public <T> RequestHandle streamObjects(String dataset, String query, Class<T> mapping, RowCallback<T> callback) {
+        RequestParams params = new RequestParams();
+        params.put("$query", query);
+        return stream(String.format("/%s", dataset), params, cacheKey(dataset, "$query", query), mapping, callback);
+    }
+
+    /**
+     * Asynchronously streams all remote dataset objects matching a SOQL query expressed as a SODAQuery delivering
+     * each row to the callback as soon as it is downloaded and mapped, without holding the whole result in memory
+     *
+     * @param query    a typed query containing mapping and dataset information
+     * @param callback a row callback implementation where rows will be delivered
+     * @param <T>      the type of each row e.g. EarthQuake
+     * @return a handle to cancel the request
+     * @see #streamObjects(String, String, Class, RowCallback)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> RequestHandle streamObjects(Query query, RowCallback<T> callback) {
+        return streamObjects(query.getDataset(), query.build(), (Class<T>) query.getMapping(), callback);
     }
 
 }
@@ -17,7 +17,10 @@ import com.socrata.android.client.converters.*;
 import java.lang.reflect.Field;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Datatype mappers that map incoming json values based on their SODA type or default target primitive type
@@ -29,6 +32,11 @@ public class DataTypesMapper {
      */
     public static final String UNKNOWN_TYPE = "__unknown_type__";
 
+    /**
+     * Max binding plans kept per mapper, one per model class and set of SODA field types
+     */
+    public static final int MAX_BINDING_PLANS = 64;
+
     /**
      * Default converter for embedded types that declare @SodaEntity
      */
@@ -68,6 +76,31 @@ public class DataTypesMapper {
         put(String.class, new StringTypeConverter());
     }};
 
+    /**
+     * Version of the converter maps, shared by every mapper, bumped whenever a converter is registered
+     */
+    private static final AtomicInteger convertersVersion = new AtomicInteger();
+
+    /**
+     * Thread safe cache of adapters for embedded @SodaEntity types reused across rows and requests
+     */
+    private final ConcurrentHashMap<Class<?>, JsonAdapter<?>> embeddedAdapters = new ConcurrentHashMap<Class<?>, JsonAdapter<?>>();
+
+    /**
+     * Compiled binding plans in access order, the least recently used plan is dropped beyond {@link #MAX_BINDING_PLANS}
+     */
+    private final Map<Object, BindingPlan<?>> bindingPlans = new LinkedHashMap<Object, BindingPlan<?>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, BindingPlan<?>> eldest) {
+            return size() > MAX_BINDING_PLANS;
+        }
+    };
+
+    /**
+     * Version of the converter maps the cached plans and embedded adapters were resolved against
+     */
+    private volatile int resolvedVersion = convertersVersion.get();
+
     /**
      * Public method to register user converters
      *
@@ -76,6 +109,7 @@ public class DataTypesMapper {
      */
     public void setConverter(String type, DataTypeConverter dataTypeConverter) {
         converters.put(type, dataTypeConverter);
+        convertersVersion.incrementAndGet();
     }
 
     /**
@@ -86,6 +120,53 @@ public class DataTypesMapper {
      */
     public void setJavaConverter(Class<?> type, DataTypeConverter dataTypeConverter) {
         defaultJavaConverters.put(type, dataTypeConverter);
+        convertersVersion.incrementAndGet();
+    }
+
+    /**
+     * Looks up a compiled binding plan
+     *
+     * @param key the plan key
+     * @return the plan or null if it has not been compiled or was resolved against converters since replaced
+     */
+    BindingPlan<?> getBindingPlan(Object key) {
+        checkConvertersVersion();
+        synchronized (bindingPlans) {
+            return bindingPlans.get(key);
+        }
+    }
+
+    /**
+     * Caches a compiled binding plan unless an equivalent one was cached meanwhile
+     *
+     * @param key  the plan key
+     * @param plan the plan
+     * @return the cached plan
+     */
+    BindingPlan<?> putBindingPlan(Object key, BindingPlan<?> plan) {
+        synchronized (bindingPlans) {
+            BindingPlan<?> existing = bindingPlans.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            bindingPlans.put(key, plan);
+            return plan;
+        }
+    }
+
+    /**
+     * Private helper that discards the plans and embedded adapters holding converters resolved before a converter
+     * was registered. Converter maps are shared so a registration through any mapper invalidates every mapper
+     */
+    private void checkConvertersVersion() {
+        int version = convertersVersion.get();
+        if (resolvedVersion != version) {
+            synchronized (bindingPlans) {
+                bindingPlans.clear();
+            }
+            embeddedAdapters.clear();
+            resolvedVersion = version;
+        }
     }
 
     /**
@@ -97,20 +178,54 @@ public class DataTypesMapper {
      * @return the value to be set in the field
      */
     public Object getValue(Field targetField, String type, Object rawValue) {
-        Object result = rawValue;
+        DataTypeConverter converter = getConverter(targetField, type);
+        return converter != null ? converter.getValue(this, targetField, type, rawValue) : rawValue;
+    }
+
+    /**
+     * Resolves the converter for values of a remote type that will be written to a field. Resolution only depends
+     * on the field and the type so callers decoding many rows can resolve it once and reuse it for every row.
+     *
+     * @param targetField the field where values are about to be written to
+     * @param type        the remote SODA type
+     * @return the converter or null if raw values are written as they are
+     */
+    public DataTypeConverter getConverter(Field targetField, String type) {
         DataTypeConverter converter = converters.get(type);
-        if (converter != null) {
-            result = converter.getValue(this, targetField, type, rawValue);
-        } else {
+        if (converter == null) {
             Class<?> fieldType = targetField.getType();
             if (fieldType.isAnnotationPresent(SodaEntity.class)) {
-                result = embeddedEntityConverter.getValue(this, targetField, type, rawValue);
+                converter = embeddedEntityConverter;
             } else {
-                if (defaultJavaConverters.containsKey(fieldType)) {
-                    result = defaultJavaConverters.get(fieldType).getValue(this, targetField, type, rawValue);
-                }
+                converter = defaultJavaConverters.get(fieldType);
+            }
+        }
+        return converter;
+    }
+
+    /**
+     * Returns the adapter for an embedded @SodaEntity type. SODA does not provide header type values for embedded
+     * datatypes so the adapter maps all the type properties with {@link #UNKNOWN_TYPE}.
+     * Adapters are built once per type and reused for every value.
+     *
+     * @param target the embedded type
+     * @param <T>    the embedded type
+     * @return the adapter
+     */
+    @SuppressWarnings("unchecked")
+    public <T> JsonAdapter<T> getEmbeddedAdapter(Class<T> target) {
+        checkConvertersVersion();
+        JsonAdapter<?> adapter = embeddedAdapters.get(target);
+        if (adapter == null) {
+            JsonAdapter<T> newAdapter = new JsonAdapter<T>(target, this);
+            for (String sodaField : newAdapter.getSodaFields()) {
+                newAdapter.addFieldMapping(sodaField, UNKNOWN_TYPE);
+            }
+            adapter = embeddedAdapters.putIfAbsent(target, newAdapter);
+            if (adapter == null) {
+                adapter = newAdapter;
             }
         }
-        return result;
+        return (JsonAdapter<T>) adapter;
     }
 }
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -51,6 +52,11 @@ public class JsonAdapter<T> {
      */
     private Map<String, String> fieldsTypesMap = new HashMap<String, String>();
 
+    /**
+     * The binding plan compiled for the current field types, lazily resolved and discarded when mappings change
+     */
+    private BindingPlan<T> bindingPlan;
+
     /**
      * Thread safe local cache of property mappings to avoid continuous iteration over reflection
      */
@@ -117,23 +123,61 @@ public class JsonAdapter<T> {
      * @throws JSONException
      */
     public T fromJsonObject(JSONObject json) throws IllegalAccessException, InstantiationException, JSONException {
-        if (!target.isAnnotationPresent(SodaEntity.class)) {
-            throw new AssertionError("Target is not annotated with @SodaEntity");
+        if (bindingPlan == null) {
+            bindingPlan = BindingPlan.get(target, dataTypesMapper, fieldsTypesMap, fieldMappings);
         }
-        T model = target.newInstance();
-        for (Map.Entry<String, String> fieldTypeEntry : fieldsTypesMap.entrySet()) {
-            String field = fieldTypeEntry.getKey();
-            String type = fieldTypeEntry.getValue();
-            Field targetField = fieldMappings.get(field);
-            if (json.has(field) && targetField != null) {
-                Object jsonValue = json.opt(field);
-                if (jsonValue != null) {
-                    Object value = dataTypesMapper.getValue(targetField, type, jsonValue);
-                    targetField.set(model, value);
-                }
+        return bindingPlan.bind(json);
+    }
+
+    /**
+     * Registers field mappings from the JSON encoded field names and types as returned by the SODA headers
+     *
+     * @param fieldsJson a JSON array with the field names
+     * @param typesJson  a JSON array with the SODA types in the same order as the field names
+     * @throws JSONException
+     */
+    public void addFieldMappings(String fieldsJson, String typesJson) throws JSONException {
+        if (fieldsJson != null && typesJson != null) {
+            JSONArray fields = new JSONArray(fieldsJson);
+            JSONArray types = new JSONArray(typesJson);
+            for (int i = 0; i < fields.length(); i++) {
+                addFieldMapping(fields.optString(i), types.optString(i));
             }
         }
-        return model;
+    }
+
+    /**
+     * @return the target model class
+     */
+    public Class<T> getTarget() {
+        return target;
+    }
+
+    /**
+     * Reads the value of a SODA field from a model instance, e.g. the keyset column of the last row of a page
+     *
+     * @param entity    the model instance
+     * @param sodaField the SODA field name
+     * @return the field value
+     * @throws IllegalArgumentException if the target model class does not map the SODA field
+     */
+    public Object getValue(T entity, String sodaField) {
+        Field field = fieldMappings.get(sodaField);
+        if (field == null) {
+            throw new IllegalArgumentException(String.format("%s does not map the SODA field %s", target.getName(), sodaField));
+        }
+        try {
+            return field.get(entity);
+        } catch (IllegalAccessException e) {
+            throw new SodaTypeConversionException(e);
+        }
+    }
+
+    /**
+     * @return the SODA field names the target model class maps
+     */
+    public Set<String> getSodaFields() {
+        return fieldMappings.keySet();
     }
 
     /**
@@ -144,6 +188,7 @@ public class JsonAdapter<T> {
      */
     public void addFieldMapping(String field, String type) {
         fieldsTypesMap.put(field, type);
+        bindingPlan = null;
     }
 
 }
@@ -0,0 +1,394 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Pull tokenizer that reads a SODA response body one row at a time straight from a character stream.
+ * A top level JSON array yields each of its objects as a row while a top level JSON object yields itself as a
+ * single row. Only the row being read is ever materialized so memory stays bounded by the size of one row
+ * regardless of the size of the payload.
+ * android.util.JsonReader is not used since it is not available in all the API levels this SDK supports.
+ */
+public class JsonRowReader implements Closeable {
+
+    /**
+     * Nothing has been read from the stream yet
+     */
+    private static final int STATE_START = 0;
+
+    /**
+     * Positioned inside the top level array
+     */
+    private static final int STATE_ARRAY = 1;
+
+    /**
+     * A single top level object is pending to be read
+     */
+    private static final int STATE_OBJECT = 2;
+
+    /**
+     * The stream has been fully consumed
+     */
+    private static final int STATE_END = 3;
+
+    /**
+     * The underlying character stream
+     */
+    private final Reader in;
+
+    /**
+     * Read buffer
+     */
+    private final char[] buffer = new char[1024];
+
+    /**
+     * Current position in the read buffer
+     */
+    private int position;
+
+    /**
+     * Number of valid chars in the read buffer
+     */
+    private int limit;
+
+    /**
+     * The current reader state
+     */
+    private int state = STATE_START;
+
+    /**
+     * Whether the top level value is an array of rows
+     */
+    private boolean array;
+
+    /**
+     * Reusable builder for strings and number literals
+     */
+    private final StringBuilder token = new StringBuilder();
+
+    /**
+     * Constructs a row reader over a character stream
+     *
+     * @param in the character stream
+     */
+    public JsonRowReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * @return true if there are more rows to be read
+     * @throws IOException   if the underlying stream fails
+     * @throws JSONException if the stream does not contain valid JSON
+     */
+    public boolean hasNext() throws IOException, JSONException {
+        if (state == STATE_START) {
+            int c = nextClean();
+            if (c == -1) {
+                state = STATE_END;
+            } else if (c == '[') {
+                array = true;
+                state = peekClean() == ']' ? endArray() : STATE_ARRAY;
+            } else if (c == '{') {
+                position--;
+                state = STATE_OBJECT;
+            } else {
+                throw syntaxError("Expected a JSON array or object");
+            }
+        }
+        return state == STATE_ARRAY || state == STATE_OBJECT;
+    }
+
+    /**
+     * Reads the next row
+     *
+     * @return the row as a JSON object
+     * @throws IOException   if the underlying stream fails
+     * @throws JSONException if the stream does not contain valid JSON or the row is not an object
+     */
+    public JSONObject next() throws IOException, JSONException {
+        if (!hasNext()) {
+            throw new JSONException("No more rows");
+        }
+        if (nextClean() != '{') {
+            throw syntaxError("Expected a JSON object row");
+        }
+        JSONObject row = readObject();
+        if (state == STATE_OBJECT) {
+            state = STATE_END;
+        } else {
+            int c = nextClean();
+            if (c == ']') {
+                state = STATE_END;
+            } else if (c != ',') {
+                throw syntaxError("Expected ',' or ']'");
+            }
+        }
+        return row;
+    }
+
+    /**
+     * @return whether the top level value is an array of rows. Only meaningful after the first call to
+     *         {@link #hasNext()}
+     */
+    public boolean isArray() {
+        return array;
+    }
+
+    /**
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Private helper that consumes the closing bracket of an empty array
+     */
+    private int endArray() throws IOException {
+        position++;
+        return STATE_END;
+    }
+
+    /**
+     * Reads a JSON value of any type
+     */
+    private Object readValue() throws IOException, JSONException {
+        int c = nextClean();
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case -1:
+                throw syntaxError("Unexpected end of input");
+            default:
+                position--;
+                return readLiteral();
+        }
+    }
+
+    /**
+     * Reads an object whose opening brace has already been consumed
+     */
+    private JSONObject readObject() throws IOException, JSONException {
+        JSONObject object = new JSONObject();
+        if (peekClean() == '}') {
+            position++;
+            return object;
+        }
+        while (true) {
+            if (nextClean() != '"') {
+                throw syntaxError("Expected a field name");
+            }
+            String name = readString();
+            if (nextClean() != ':') {
+                throw syntaxError("Expected ':'");
+            }
+            object.put(name, readValue());
+            int c = nextClean();
+            if (c == '}') {
+                return object;
+            } else if (c != ',') {
+                throw syntaxError("Expected ',' or '}'");
+            }
+        }
+    }
+
+    /**
+     * Reads an array whose opening bracket has already been consumed
+     */
+    private JSONArray readArray() throws IOException, JSONException {
+        JSONArray values = new JSONArray();
+        if (peekClean() == ']') {
+            position++;
+            return values;
+        }
+        while (true) {
+            values.put(readValue());
+            int c = nextClean();
+            if (c == ']') {
+                return values;
+            } else if (c != ',') {
+                throw syntaxError("Expected ',' or ']'");
+            }
+        }
+    }
+
+    /**
+     * Reads a string whose opening quote has already been consumed
+     */
+    private String readString() throws IOException, JSONException {
+        token.setLength(0);
+        while (true) {
+            int c = read();
+            switch (c) {
+                case -1:
+                    throw syntaxError("Unterminated string");
+                case '"':
+                    return token.toString();
+                case '\\':
+                    token.append(readEscape());
+                    break;
+                default:
+                    token.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * Reads an escape sequence whose backslash has already been consumed
+     */
+    private char readEscape() throws IOException, JSONException {
+        int c = read();
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit == -1) {
+                        throw syntaxError("Invalid unicode escape");
+                    }
+                    value = (value << 4) + digit;
+                }
+                return (char) value;
+            case -1:
+                throw syntaxError("Unterminated escape sequence");
+            default:
+                return (char) c;
+        }
+    }
+
+    /**
+     * Reads true, false, null or a number. Integral numbers are returned as Integer or Long and the rest as
+     * Double which is the same representation org.json uses
+     */
+    private Object readLiteral() throws IOException, JSONException {
+        token.setLength(0);
+        boolean decimal = false;
+        while (true) {
+            int c = peek();
+            if (c == -1 || c == ',' || c == '}' || c == ']' || c <= ' ') {
+                break;
+            }
+            if (c == '.' || c == 'e' || c == 'E') {
+                decimal = true;
+            }
+            token.append((char) c);
+            position++;
+        }
+        String literal = token.toString();
+        if (literal.length() == 0) {
+            throw syntaxError("Expected a value");
+        } else if ("true".equals(literal)) {
+            return Boolean.TRUE;
+        } else if ("false".equals(literal)) {
+            return Boolean.FALSE;
+        } else if ("null".equals(literal)) {
+            return JSONObject.NULL;
+        }
+        try {
+            if (!decimal) {
+                long value = Long.parseLong(literal);
+                if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                    return (int) value;
+                }
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // too large for a long, fall through to double
+        }
+        try {
+            return Double.valueOf(literal);
+        } catch (NumberFormatException e) {
+            throw syntaxError(String.format("Invalid literal %s", literal));
+        }
+    }
+
+    /**
+     * Reads the next non whitespace char consuming it
+     */
+    private int nextClean() throws IOException {
+        int c = peekClean();
+        if (c != -1) {
+            position++;
+        }
+        return c;
+    }
+
+    /**
+     * Peeks the next non whitespace char without consuming it
+     */
+    private int peekClean() throws IOException {
+        int c = peek();
+        while (c != -1 && c <= ' ') {
+            position++;
+            c = peek();
+        }
+        return c;
+    }
+
+    /**
+     * Reads the next char consuming it
+     */
+    private int read() throws IOException {
+        int c = peek();
+        if (c != -1) {
+            position++;
+        }
+        return c;
+    }
+
+    /**
+     * Peeks the next char refilling the buffer if necessary
+     */
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    /**
+     * Private helper to build syntax errors
+     */
+    private JSONException syntaxError(String message) {
+        return new JSONException(message);
+    }
+
+}
@@ -0,0 +1,287 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client;
+
+import com.socrata.android.soql.Query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.socrata.android.soql.utils.BuildUtils.asExpressions;
+
+/**
+ * Fetches every row matching a query by splitting the offset space into fixed size pages and keeping up to a number
+ * of page requests in flight at once. Pages are reassembled in order and delivered as a single list once the first
+ * short page is found and every page before it has arrived.
+ * Keyset paginated queries are fetched one page at a time since each page starts after the last row of the previous one.
+ * Cancelling the fetcher cancels the page requests in flight and no more pages are requested. Page requests that
+ * can no longer contribute, those after the first short page or any once the fetcher fails or completes, are
+ * cancelled as well.
+ *
+ * @param <T> the type of each row e.g. EarthQuake
+ */
+@SuppressWarnings("unchecked")
+class PageFetcher<T> implements RequestHandle {
+
+    /**
+     * Ordering used when the query has none since offset paging needs a stable order
+     */
+    static final String DEFAULT_ORDER = ":id";
+
+    /**
+     * The consumer executing the page requests
+     */
+    private final Consumer consumer;
+
+    /**
+     * A private copy of the query, its offset is the start of the first page
+     */
+    private final Query query;
+
+    /**
+     * The offset of the first page
+     */
+    private final int start;
+
+    /**
+     * Rows per page
+     */
+    private final int pageSize;
+
+    /**
+     * Max page requests in flight
+     */
+    private final int parallelism;
+
+    /**
+     * Callback where the reassembled rows are delivered
+     */
+    private final Callback<List<T>> callback;
+
+    /**
+     * Reads the keyset column of the last row of each page, null when paging by offset
+     */
+    private final JsonAdapter<T> keysetAdapter;
+
+    /**
+     * The keyset column value the next page starts after
+     */
+    private Object seekAfter;
+
+    /**
+     * Arrived pages by page index
+     */
+    private final TreeMap<Integer, List<T>> pages = new TreeMap<Integer, List<T>>();
+
+    /**
+     * Index of the next page to request
+     */
+    private int nextPage;
+
+    /**
+     * Number of page requests in flight
+     */
+    private int inFlight;
+
+    /**
+     * Index of the first short page or Integer.MAX_VALUE while it is unknown
+     */
+    private int lastPage = Integer.MAX_VALUE;
+
+    /**
+     * Headers of the first page
+     */
+    private Map<String, String> headers;
+
+    /**
+     * Handles of the page requests in flight by page index
+     */
+    private final Map<Integer, RequestHandle> requests = new HashMap<Integer, RequestHandle>();
+
+    /**
+     * Whether results or an error have been delivered or the fetcher has been cancelled
+     */
+    private boolean done;
+
+    /**
+     * Whether the fetcher has been cancelled
+     */
+    private boolean cancelled;
+
+    /**
+     * Constructs a page fetcher
+     *
+     * @param consumer    the consumer executing the page requests
+     * @param query       the query, its offset or keyset position is the start of the first page and its limit is ignored
+     * @param pageSize    rows per page
+     * @param parallelism max page requests in flight
+     * @param callback    callback where the reassembled rows are delivered
+     */
+    PageFetcher(Consumer consumer, Query query, int pageSize, int parallelism, Callback<List<T>> callback) {
+        if (pageSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Page size and parallelism must be positive");
+        }
+        this.consumer = consumer;
+        this.query = new Query(query);
+        if (query.isKeyset()) {
+            keysetAdapter = new JsonAdapter<T>((Class<T>) query.getMapping(), consumer.getDataTypesMapper());
+            if (!keysetAdapter.getSodaFields().contains(query.getKeysetColumn())) {
+                throw new IllegalArgumentException(String.format("%s does not map the keyset column %s", query.getMapping().getName(), query.getKeysetColumn()));
+            }
+            seekAfter = query.getSeekAfter();
+        } else {
+            keysetAdapter = null;
+            if (this.query.getOrderBy().getExpressions().length == 0) {
+                this.query.addOrder(asExpressions(DEFAULT_ORDER));
+            }
+        }
+        this.start = query.getOffset() != null ? query.getOffset() : 0;
+        this.pageSize = pageSize;
+        this.parallelism = keysetAdapter != null ? 1 : parallelism;
+        this.callback = callback;
+    }
+
+    /**
+     * Requests the first pages
+     *
+     * @return this fetcher as a handle to cancel it
+     */
+    synchronized RequestHandle start() {
+        requestPages();
+        return this;
+    }
+
+    /**
+     * @see RequestHandle#cancel()
+     */
+    @Override
+    public synchronized void cancel() {
+        if (!done) {
+            done = true;
+            cancelled = true;
+            cancelRequests(-1);
+        }
+    }
+
+    /**
+     * @see RequestHandle#isCancelled()
+     */
+    @Override
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @see RequestHandle#isDone()
+     */
+    @Override
+    public synchronized boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Private helper that keeps requesting pages until the parallelism is reached or the last page is known
+     */
+    private void requestPages() {
+        while (!done && inFlight < parallelism && nextPage <= lastPage) {
+            final int page = nextPage++;
+            inFlight++;
+            if (keysetAdapter != null) {
+                query.seekAfter(seekAfter);
+            } else {
+                query.setOffset(start + page * pageSize);
+            }
+            query.setLimit(pageSize);
+            RequestHandle request = consumer.getObjects(query.getDataset(), query.build(), query.getMapping(), new Callback<List<T>>() {
+                @Override
+                public void onResults(Response<List<T>> response) {
+                    onPage(page, response);
+                }
+            });
+            if (request != null && !request.isDone()) {
+                requests.put(page, request);
+            }
+        }
+    }
+
+    /**
+     * Private helper that cancels the page requests in flight after a page
+     *
+     * @param after the page index, -1 cancels all of them
+     */
+    private void cancelRequests(int after) {
+        Iterator<Map.Entry<Integer, RequestHandle>> iterator = requests.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, RequestHandle> request = iterator.next();
+            if (request.getKey() > after) {
+                iterator.remove();
+                inFlight--;
+                request.getValue().cancel();
+            }
+        }
+    }
+
+    /**
+     * Invoked when a page arrives
+     *
+     * @param page     the page index
+     * @param response the page response
+     */
+    private synchronized void onPage(int page, Response<List<T>> response) {
+        inFlight--;
+        requests.remove(page);
+        if (done) {
+            return;
+        }
+        if (response.hasError()) {
+            done = true;
+            cancelRequests(-1);
+            callback.onResults(response);
+            return;
+        }
+        List<T> rows = response.getEntity() != null ? response.getEntity() : new ArrayList<T>();
+        if (page == 0) {
+            headers = response.getHeaders();
+        }
+        if (page <= lastPage) {
+            pages.put(page, rows);
+            if (rows.size() < pageSize) {
+                lastPage = page;
+                pages.tailMap(page + 1).clear();
+                cancelRequests(page);
+            } else if (keysetAdapter != null) {
+                seekAfter = keysetAdapter.getValue(rows.get(rows.size() - 1), query.getKeysetColumn());
+            }
+        }
+        if (lastPage != Integer.MAX_VALUE && pages.size() == lastPage + 1) {
+            done = true;
+            cancelRequests(-1);
+            List<T> all = new ArrayList<T>(lastPage * pageSize + pages.get(lastPage).size());
+            for (List<T> pageRows : pages.values()) {
+                all.addAll(pageRows);
+            }
+            Response<List<T>> result = new Response<List<T>>();
+            result.setStatus(response.getStatus());
+            result.setHeaders(headers);
+            result.setEntity(all);
+            callback.onResults(result);
+        } else {
+            requestPages();
+        }
+    }
+
+}
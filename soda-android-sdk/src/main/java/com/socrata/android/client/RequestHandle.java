@@ -0,0 +1,37 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client;
+
+/**
+ * Handle to a request issued by the Consumer that allows cancelling it.
+ * Once cancelled its callback is never invoked and, if nobody else is waiting for the same response,
+ * the download is aborted and the remaining rows are not decoded.
+ */
+public interface RequestHandle {
+
+    /**
+     * Cancels the request, it has no effect if the results have already been delivered
+     */
+    void cancel();
+
+    /**
+     * @return whether the request has been cancelled
+     */
+    boolean isCancelled();
+
+    /**
+     * @return whether the request is over because its results have been delivered or it has been cancelled
+     */
+    boolean isDone();
+
+}
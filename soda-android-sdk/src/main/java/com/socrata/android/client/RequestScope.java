@@ -0,0 +1,72 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Groups the requests issued on behalf of a screen so they can be cancelled together when it goes away,
+ * e.g. from Fragment#onDestroyView or Activity#onDestroy. Cancelled requests stop downloading and decoding and
+ * their callbacks are never invoked. Requests that are over are dropped from the scope as new ones are added.
+ */
+public class RequestScope {
+
+    /**
+     * The requests that may still be in flight
+     */
+    private final List<RequestHandle> requests = new ArrayList<RequestHandle>();
+
+    /**
+     * Adds a request to this scope
+     *
+     * @param request the request handle, null is ignored
+     * @param <H>     the type of handle
+     * @return the request handle
+     */
+    public synchronized <H extends RequestHandle> H add(H request) {
+        Iterator<RequestHandle> iterator = requests.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isDone()) {
+                iterator.remove();
+            }
+        }
+        if (request != null && !request.isDone()) {
+            requests.add(request);
+        }
+        return request;
+    }
+
+    /**
+     * Cancels every request of this scope that is still in flight, the scope can be reused afterwards
+     */
+    public void cancelAll() {
+        List<RequestHandle> cancelled;
+        synchronized (this) {
+            cancelled = new ArrayList<RequestHandle>(requests);
+            requests.clear();
+        }
+        for (RequestHandle request : cancelled) {
+            request.cancel();
+        }
+    }
+
+    /**
+     * @return the number of requests of this scope that may still be in flight
+     */
+    public synchronized int size() {
+        return requests.size();
+    }
+
+}
@@ -50,6 +50,14 @@ public class Response<T> {
         return error;
     }
 
+    /**
+     * Responses are decoded row by row as they are streamed from the server without building a JSON tree, so no
+     * JSON representation is kept
+     *
+     * @return null, the entity holds the decoded rows and the error holds the details of failed responses
+     * @deprecated responses are streamed, use {@link #getEntity()} or {@link #getError()}
+     */
+    @Deprecated
     public Object getJson() {
         return json;
     }
@@ -0,0 +1,198 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The pending response of a request issued by the Consumer, for code running on worker threads that blocks
+ * until results are available or composes requests through callbacks run on an executor of its choice.
+ * Like callbacks the future completes with the response even when it holds an error, check {@link Response#hasError()}.
+ * Cancelling the future cancels the request.
+ *
+ * @param <T> the type of result e.g. List<EarthQuake>
+ */
+public class ResponseFuture<T> implements Future<Response<T>>, RequestHandle {
+
+    /**
+     * Released once the future completes or is cancelled
+     */
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    /**
+     * Callbacks invoked on completion, each one dispatching to its executor
+     */
+    private final List<Callback<T>> callbacks = new ArrayList<Callback<T>>();
+
+    /**
+     * The request producing the response or null
+     */
+    private volatile RequestHandle request;
+
+    private volatile Response<T> response;
+
+    private volatile boolean cancelled;
+
+    /**
+     * Sets the request producing the response, cancelled along with this future
+     *
+     * @param request the request
+     */
+    void setRequest(RequestHandle request) {
+        this.request = request;
+        if (cancelled) {
+            request.cancel();
+        }
+    }
+
+    /**
+     * Completes this future with a response invoking the callbacks added so far
+     *
+     * @param response the response
+     * @return false if the future had already completed or was cancelled
+     */
+    public boolean set(Response<T> response) {
+        List<Callback<T>> targets;
+        synchronized (this) {
+            if (isDone()) {
+                return false;
+            }
+            this.response = response;
+            done.countDown();
+            targets = new ArrayList<Callback<T>>(callbacks);
+            callbacks.clear();
+        }
+        for (Callback<T> callback : targets) {
+            callback.onResults(response);
+        }
+        return true;
+    }
+
+    /**
+     * Adds a callback invoked once this future completes, right away if it already has.
+     * Callbacks are not invoked if the future is cancelled.
+     *
+     * @param callback the callback
+     * @param executor the executor where the callback is invoked, e.g. {@link Consumer#SYNCHRONOUS} to invoke it on
+     *                 the thread that completes the future
+     */
+    public void addCallback(final Callback<T> callback, final Executor executor) {
+        Callback<T> dispatcher = new Callback<T>() {
+            @Override
+            public void onResults(final Response<T> response) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onResults(response);
+                    }
+                });
+            }
+        };
+        synchronized (this) {
+            if (!isDone()) {
+                callbacks.add(dispatcher);
+                return;
+            }
+        }
+        if (!cancelled) {
+            dispatcher.onResults(response);
+        }
+    }
+
+    /**
+     * @see Future#cancel(boolean)
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        synchronized (this) {
+            if (isDone()) {
+                return false;
+            }
+            cancelled = true;
+            done.countDown();
+            callbacks.clear();
+        }
+        RequestHandle current = request;
+        if (current != null) {
+            current.cancel();
+        }
+        return true;
+    }
+
+    /**
+     * @see RequestHandle#cancel()
+     */
+    @Override
+    public void cancel() {
+        cancel(true);
+    }
+
+    /**
+     * @see Future#isCancelled()
+     */
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @see Future#isDone()
+     */
+    @Override
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    /**
+     * Blocks until the response is available
+     *
+     * @see Future#get()
+     */
+    @Override
+    public Response<T> get() throws InterruptedException {
+        done.await();
+        return getNow();
+    }
+
+    /**
+     * Blocks until the response is available or the timeout elapses
+     *
+     * @see Future#get(long, java.util.concurrent.TimeUnit)
+     */
+    @Override
+    public Response<T> get(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        if (!done.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return getNow();
+    }
+
+    /**
+     * @return the response of a completed future
+     * @throws CancellationException if the future was cancelled
+     */
+    Response<T> getNow() {
+        if (cancelled) {
+            throw new CancellationException();
+        }
+        return response;
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client;
+
+/**
+ * Request callback invoked for each row as soon as it has been downloaded and unmarshalled to a model object,
+ * before the rest of the response body has been received
+ * @param <T> the type of each row e.g. EarthQuake
+ */
+public interface RowCallback<T> {
+
+    /**
+     * Invoked for each row in the order they are returned by the server
+     * @param row the row model object
+     * @param index the row index in the response
+     */
+    void onRow(T row, int index);
+
+    /**
+     * Invoked once all rows have been delivered
+     * @param response the response containing status and headers information
+     */
+    void onComplete(Response<Void> response);
+
+    /**
+     * Invoked upon request failure. No more rows will be delivered after this call
+     * @param response the response containing the error
+     */
+    void onError(Response<Void> response);
+
+}
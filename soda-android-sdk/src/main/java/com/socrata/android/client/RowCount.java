@@ -0,0 +1,83 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client;
+
+import com.socrata.android.soql.Query;
+
+import java.util.List;
+
+import static com.socrata.android.soql.clauses.Expression.as;
+import static com.socrata.android.soql.clauses.Expression.count;
+
+/**
+ * The number of rows matching the filters of a query, computed by the server
+ */
+@SodaEntity
+public class RowCount {
+
+    /**
+     * Alias of the row count column
+     */
+    public static final String COUNT_ALIAS = "row_count";
+
+    @SodaField(COUNT_ALIAS)
+    private Long count;
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    /**
+     * Builds the count query of a query, e.g. 'select count(*) as row_count where ...'.
+     * Only the filters are kept, the order, offset, limit and keyset position are dropped
+     *
+     * @param query the query whose rows are counted
+     * @return the count query mapped to RowCount
+     * @throws IllegalArgumentException if the query is grouped, its rows being groups that can not be counted
+     *                                  by a single query
+     */
+    public static Query query(Query query) {
+        if (query.getGroupBy().getExpressions().length > 0) {
+            throw new IllegalArgumentException("Grouped queries can not be counted");
+        }
+        Query rowCount = new Query(query.getDataset(), RowCount.class);
+        rowCount.addSelect(as(count("*"), COUNT_ALIAS));
+        rowCount.addWhere(query.getWhere().getExpressions());
+        rowCount.setOffset(null);
+        rowCount.setLimit(null);
+        return rowCount;
+    }
+
+    /**
+     * Converts the response of a count query to the total number of rows
+     *
+     * @param response the count query response
+     * @return a response with the same status, headers and error whose entity is the total
+     */
+    static Response<Long> toTotal(Response<List<RowCount>> response) {
+        Response<Long> total = new Response<Long>();
+        total.setStatus(response.getStatus());
+        total.setHeaders(response.getHeaders());
+        total.setError(response.getError());
+        List<RowCount> rows = response.getEntity();
+        if (rows != null) {
+            total.setEntity(rows.isEmpty() || rows.get(0).getCount() == null ? 0L : rows.get(0).getCount());
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,262 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.protocol.HttpContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * A streaming request that collects the decoded rows and delivers them all at once to a {@link Callback}.
+ * Further callbacks may attach to the request while it is in flight so identical requests are downloaded and
+ * decoded once. Every callback receives its own copy of the response list and headers, the row objects are shared.
+ *
+ * @param <T> the type of result e.g. List<EarthQuake>
+ */
+@SuppressWarnings("unchecked")
+class SodaCallbackStreamingRequest<T> extends SodaStreamingRequest {
+
+    /**
+     * Callbacks where unmarshalled responses will get delivered
+     */
+    private final List<Callback<T>> callbacks = new ArrayList<Callback<T>>();
+
+    /**
+     * Whether the response has been handed to the callbacks or the request stopped running without one,
+     * no more callbacks can attach once it has
+     */
+    private boolean closed;
+
+    /**
+     * In flight requests this request is registered in or null
+     */
+    private ConcurrentMap<String, SodaCallbackStreamingRequest<?>> inFlight;
+
+    /**
+     * The key of this request in the in flight requests
+     */
+    private String flightKey;
+
+    /**
+     * The decoded rows
+     */
+    private List<Object> rows = new ArrayList<Object>();
+
+    /**
+     * Constructs a streaming request delivering results to a callback
+     *
+     * @see SodaStreamingRequest#SodaStreamingRequest(HttpClient, HttpContext, HttpRequestBase, JsonAdapter, Executor)
+     */
+    SodaCallbackStreamingRequest(HttpClient httpClient, HttpContext httpContext, HttpRequestBase request, JsonAdapter jsonAdapter, Executor callbackExecutor, Callback<T> callback) {
+        super(httpClient, httpContext, request, jsonAdapter, callbackExecutor);
+        this.callbacks.add(callback);
+    }
+
+    /**
+     * Registers this request as in flight so identical requests can attach to it, it unregisters itself
+     * as soon as its response is delivered or it stops running, whatever the outcome
+     *
+     * @param inFlight  the in flight requests
+     * @param flightKey the key of this request
+     */
+    void setInFlight(ConcurrentMap<String, SodaCallbackStreamingRequest<?>> inFlight, String flightKey) {
+        this.inFlight = inFlight;
+        this.flightKey = flightKey;
+        inFlight.put(flightKey, this);
+    }
+
+    /**
+     * Attaches a callback to this in flight request
+     *
+     * @param callback the callback
+     * @return whether the callback will receive the response, false if it has already been delivered
+     */
+    synchronized boolean attach(Callback<T> callback) {
+        if (closed || isCancelled()) {
+            return false;
+        }
+        callbacks.add(callback);
+        return true;
+    }
+
+    /**
+     * Detaches a callback from this request cancelling the request once no callback is left waiting for it
+     *
+     * @param callback the callback
+     */
+    private void detach(Callback<T> callback) {
+        boolean abandoned;
+        synchronized (this) {
+            callbacks.remove(callback);
+            abandoned = callbacks.isEmpty() && !closed;
+        }
+        if (abandoned) {
+            unregister();
+            cancel();
+        }
+    }
+
+    /**
+     * Private helper that stops accepting callbacks and removes this request from the in flight requests
+     */
+    private void unregister() {
+        synchronized (this) {
+            closed = true;
+        }
+        if (inFlight != null) {
+            inFlight.remove(flightKey, this);
+        }
+    }
+
+    /**
+     * Runs the request, unregistering it once it is done so identical requests never attach to a request that
+     * will not deliver
+     *
+     * @see SodaStreamingRequest#run()
+     */
+    @Override
+    public void run() {
+        try {
+            super.run();
+        } finally {
+            unregister();
+        }
+    }
+
+    /**
+     * @return whether a callback is still waiting for the response
+     */
+    private synchronized boolean isAttached(Callback<T> callback) {
+        return callbacks.contains(callback);
+    }
+
+    /**
+     * @param callback an attached callback
+     * @return a handle that detaches the callback from this request
+     */
+    RequestHandle newHandle(final Callback<T> callback) {
+        return new RequestHandle() {
+
+            private volatile boolean cancelled;
+
+            @Override
+            public void cancel() {
+                if (!cancelled) {
+                    cancelled = true;
+                    detach(callback);
+                }
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return cancelled;
+            }
+
+            @Override
+            public boolean isDone() {
+                return cancelled || SodaCallbackStreamingRequest.this.isDone();
+            }
+        };
+    }
+
+    /**
+     * @see SodaStreamingRequest#onRow(Object, int)
+     */
+    @Override
+    protected void onRow(Object row, int index) {
+        rows.add(row);
+    }
+
+    /**
+     * @see SodaStreamingRequest#getDecodedRows()
+     */
+    @Override
+    protected List<?> getDecodedRows() {
+        return rows;
+    }
+
+    /**
+     * @see SodaStreamingRequest#onSuccess(int, java.util.Map, boolean)
+     */
+    @Override
+    protected void onSuccess(int status, Map<String, String> headers, boolean array) {
+        Response<T> response = new Response<T>();
+        response.setStatus(status);
+        response.setHeaders(headers);
+        if (array) {
+            response.setEntity((T) rows);
+        } else if (!rows.isEmpty()) {
+            response.setEntity((T) rows.get(0));
+        }
+        deliver(response);
+    }
+
+    /**
+     * @see SodaStreamingRequest#onFailure(int, java.util.Map, ResponseError)
+     */
+    @Override
+    protected void onFailure(int status, Map<String, String> headers, ResponseError error) {
+        Response<T> response = new Response<T>();
+        response.setStatus(status);
+        response.setHeaders(headers);
+        response.setError(error);
+        deliver(response);
+    }
+
+    /**
+     * Private helper that delivers a response to the callbacks through the callback executor
+     */
+    private void deliver(final Response<T> response) {
+        final List<Callback<T>> targets;
+        synchronized (this) {
+            closed = true;
+            targets = new ArrayList<Callback<T>>(callbacks);
+        }
+        unregister();
+        deliver(new Runnable() {
+            @Override
+            public void run() {
+                boolean first = true;
+                for (Callback<T> callback : targets) {
+                    if (isAttached(callback)) {
+                        callback.onResults(first ? response : copyOf(response));
+                        first = false;
+                    }
+                }
+                finish();
+            }
+        });
+    }
+
+    /**
+     * Private helper that copies a response for another callback so callbacks sorting or clearing their list
+     * don't affect each other
+     */
+    private Response<T> copyOf(Response<T> response) {
+        Response<T> copy = new Response<T>();
+        copy.setStatus(response.getStatus());
+        copy.setHeaders(response.getHeaders() != null ? new HashMap<String, String>(response.getHeaders()) : null);
+        copy.setError(response.getError());
+        T entity = response.getEntity();
+        copy.setEntity(entity instanceof List ? (T) new ArrayList<Object>((List<?>) entity) : entity);
+        return copy;
+    }
+
+}
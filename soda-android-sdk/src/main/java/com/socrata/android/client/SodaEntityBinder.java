@@ -0,0 +1,47 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client;
+
+/**
+ * Binds values to a model class annotated with @SodaEntity without reflection.
+ * Implementations are generated at compile time by the soda-android-processor annotation processor as
+ * {@code <ModelClass>$$SodaBinder} and picked up automatically by the {@link JsonAdapter} when present in the
+ * classpath.
+ *
+ * @param <T> the type of model
+ */
+public interface SodaEntityBinder<T> {
+
+    /**
+     * @return a new model instance
+     */
+    T newInstance();
+
+    /**
+     * Resolves the index of a SODA field in this binder
+     *
+     * @param sodaField the SODA field name as declared by @SodaField or the Java field name
+     * @return the index or -1 if this binder can't set the field
+     */
+    int indexOf(String sodaField);
+
+    /**
+     * Sets an already converted value to a model field
+     *
+     * @param entity the model
+     * @param index  the field index as returned by {@link #indexOf(String)}
+     * @param value  the value
+     */
+    void set(T entity, int index, Object value);
+
+}
@@ -0,0 +1,150 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lookup of generated {@link SodaEntityBinder} implementations and conversion helpers used by the generated code
+ * to assign primitive fields
+ */
+@SuppressWarnings("unchecked")
+public final class SodaEntityBinders {
+
+    /**
+     * Suffix appended to the model class name by the annotation processor
+     */
+    public static final String BINDER_SUFFIX = "$$SodaBinder";
+
+    /**
+     * Placeholder cached for model classes with no generated binder
+     */
+    private static final Object NO_BINDER = new Object();
+
+    /**
+     * Thread safe cache of binders or NO_BINDER per model class
+     */
+    private static final ConcurrentHashMap<Class<?>, Object> binders = new ConcurrentHashMap<Class<?>, Object>();
+
+    /**
+     * Prevents instantiation
+     */
+    private SodaEntityBinders() {
+    }
+
+    /**
+     * Looks up the generated binder for a model class
+     *
+     * @param target the model class
+     * @param <T>    the type of model
+     * @return the binder or null if no binder was generated for the class
+     */
+    public static <T> SodaEntityBinder<T> getBinder(Class<T> target) {
+        Object binder = binders.get(target);
+        if (binder == null) {
+            try {
+                binder = Class.forName(target.getName() + BINDER_SUFFIX, true, target.getClassLoader()).newInstance();
+            } catch (ClassNotFoundException e) {
+                binder = NO_BINDER;
+            } catch (InstantiationException e) {
+                throw new SodaTypeConversionException(e);
+            } catch (IllegalAccessException e) {
+                throw new SodaTypeConversionException(e);
+            }
+            binders.putIfAbsent(target, binder);
+        }
+        return binder == NO_BINDER ? null : (SodaEntityBinder<T>) binder;
+    }
+
+    /**
+     * @return the value as a boolean primitive, false if null
+     */
+    public static boolean toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return value != null && Boolean.parseBoolean(String.valueOf(value));
+    }
+
+    /**
+     * @return the value as an int primitive, 0 if null
+     */
+    public static int toInt(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return value == null ? 0 : Integer.parseInt(String.valueOf(value));
+    }
+
+    /**
+     * @return the value as a long primitive, 0 if null
+     */
+    public static long toLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return value == null ? 0L : Long.parseLong(String.valueOf(value));
+    }
+
+    /**
+     * @return the value as a short primitive, 0 if null
+     */
+    public static short toShort(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).shortValue();
+        }
+        return value == null ? 0 : Short.parseShort(String.valueOf(value));
+    }
+
+    /**
+     * @return the value as a byte primitive, 0 if null
+     */
+    public static byte toByte(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).byteValue();
+        }
+        return value == null ? 0 : Byte.parseByte(String.valueOf(value));
+    }
+
+    /**
+     * @return the value as a double primitive, 0 if null
+     */
+    public static double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return value == null ? 0d : Double.parseDouble(String.valueOf(value));
+    }
+
+    /**
+     * @return the value as a float primitive, 0 if null
+     */
+    public static float toFloat(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).floatValue();
+        }
+        return value == null ? 0f : Float.parseFloat(String.valueOf(value));
+    }
+
+    /**
+     * @return the value as a char primitive, the first char of its string representation
+     */
+    public static char toChar(Object value) {
+        if (value instanceof Character) {
+            return (Character) value;
+        }
+        String string = value == null ? "" : String.valueOf(value);
+        return string.length() == 0 ? '\0' : string.charAt(0);
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.protocol.HttpContext;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A streaming request that delivers each decoded row to a {@link RowCallback} while the body is still downloading.
+ * Decoding blocks once {@link #MAX_UNDELIVERED_ROWS} rows are waiting in the callback executor so a decoder running
+ * ahead of a busy main thread never queues more than that many rows.
+ *
+ * @param <T> the type of each row e.g. EarthQuake
+ */
+@SuppressWarnings("unchecked")
+class SodaRowStreamingRequest<T> extends SodaStreamingRequest {
+
+    /**
+     * Max rows handed to the callback executor and not yet delivered
+     */
+    static final int MAX_UNDELIVERED_ROWS = 64;
+
+    /**
+     * Milliseconds the decoder waits for a row to be delivered before checking whether the request was cancelled
+     */
+    private static final long CAPACITY_POLL_MILLIS = 100;
+
+    /**
+     * Callback where each unmarshalled row will get delivered
+     */
+    private RowCallback<T> callback;
+
+    /**
+     * Permits for rows handed to the callback executor, released as each row is delivered
+     */
+    private final Semaphore capacity = new Semaphore(MAX_UNDELIVERED_ROWS);
+
+    /**
+     * Constructs a streaming request delivering rows to a row callback
+     *
+     * @see SodaStreamingRequest#SodaStreamingRequest(HttpClient, HttpContext, HttpRequestBase, JsonAdapter, Executor)
+     */
+    SodaRowStreamingRequest(HttpClient httpClient, HttpContext httpContext, HttpRequestBase request, JsonAdapter jsonAdapter, Executor callbackExecutor, RowCallback<T> callback) {
+        super(httpClient, httpContext, request, jsonAdapter, callbackExecutor);
+        this.callback = callback;
+    }
+
+    /**
+     * @see SodaStreamingRequest#onRow(Object, int)
+     */
+    @Override
+    protected void onRow(final Object row, final int index) {
+        if (!awaitCapacity()) {
+            return;
+        }
+        deliver(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    callback.onRow((T) row, index);
+                } finally {
+                    capacity.release();
+                }
+            }
+        });
+    }
+
+    /**
+     * Private helper that blocks the decoder until fewer than {@link #MAX_UNDELIVERED_ROWS} rows are pending delivery.
+     * Permits of rows dropped on cancellation are never released so it gives up once the request is cancelled
+     *
+     * @return whether a permit was acquired, false if the request was cancelled or the thread interrupted
+     */
+    private boolean awaitCapacity() {
+        try {
+            while (!capacity.tryAcquire(CAPACITY_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (isCancelled()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            return false;
+        }
+    }
+
+    /**
+     * @see SodaStreamingRequest#onSuccess(int, java.util.Map, boolean)
+     */
+    @Override
+    protected void onSuccess(int status, Map<String, String> headers, boolean array) {
+        final Response<Void> response = new Response<Void>();
+        response.setStatus(status);
+        response.setHeaders(headers);
+        deliver(new Runnable() {
+            @Override
+            public void run() {
+                callback.onComplete(response);
+                finish();
+            }
+        });
+    }
+
+    /**
+     * @see SodaStreamingRequest#onFailure(int, java.util.Map, ResponseError)
+     */
+    @Override
+    protected void onFailure(int status, Map<String, String> headers, ResponseError error) {
+        final Response<Void> response = new Response<Void>();
+        response.setStatus(status);
+        response.setHeaders(headers);
+        response.setError(error);
+        deliver(new Runnable() {
+            @Override
+            public void run() {
+                callback.onError(response);
+                finish();
+            }
+        });
+    }
+
+}
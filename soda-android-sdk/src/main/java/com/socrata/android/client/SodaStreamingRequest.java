@@ -0,0 +1,542 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client;
+
+import com.socrata.android.client.cache.CacheEntry;
+import com.socrata.android.client.cache.CacheStats;
+import com.socrata.android.client.cache.ResponseCache;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.StatusLine;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * A request executed on a background thread that decodes the response body row by row straight from the
+ * HTTP entity stream as it is downloaded, never buffering the whole body nor building an intermediate JSON tree.
+ * Subclasses decide what to do with each decoded row and how results are delivered.
+ * When a response cache is set fresh responses are served from it, stale ones are revalidated with a conditional
+ * request and downloaded bodies are copied to it as they are decoded.
+ * Cancelling the request aborts the download, stops decoding and drops any pending delivery.
+ */
+abstract class SodaStreamingRequest implements Runnable, RequestHandle {
+
+    /**
+     * SODA Fields Header
+     */
+    static final String FIELDS_HEADER = "X-SODA2-Fields";
+
+    /**
+     * SODA Types Header
+     */
+    static final String TYPES_HEADER = "X-SODA2-Types";
+
+    /**
+     * Default charset when the response does not declare one
+     */
+    private static final String DEFAULT_CHARSET = "UTF-8";
+
+    /**
+     * Charset of the cached response bodies
+     */
+    private static final String CACHE_CHARSET = "UTF-8";
+
+    /**
+     * The http client executing the request
+     */
+    private HttpClient httpClient;
+
+    /**
+     * The http context shared with the async http client
+     */
+    private HttpContext httpContext;
+
+    /**
+     * The request
+     */
+    private HttpRequestBase request;
+
+    /**
+     * A JSON adapter that transforms JSON into its Java model representation
+     */
+    private JsonAdapter jsonAdapter;
+
+    /**
+     * Executor where results are delivered
+     */
+    private Executor callbackExecutor;
+
+    /**
+     * The response cache or null if responses are not cached
+     */
+    private ResponseCache cache;
+
+    /**
+     * The key of this request in the response cache
+     */
+    private String cacheKey;
+
+    /**
+     * Max age in milliseconds a cached response is served without revalidation
+     */
+    private long cacheMaxAge;
+
+    /**
+     * Counters where cache hits and misses are recorded
+     */
+    private CacheStats cacheStats;
+
+    /**
+     * Whether this request has been cancelled
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Whether the final results have been delivered
+     */
+    private volatile boolean done;
+
+    /**
+     * Whether onSuccess or onFailure has been invoked, runtime exceptions thrown afterwards come from callbacks
+     * run on the request thread and are not turned into a failure
+     */
+    private boolean responded;
+
+    /**
+     * Constructs a streaming request
+     *
+     * @param httpClient       the http client executing the request
+     * @param httpContext      the http context
+     * @param request          the request
+     * @param jsonAdapter      the JSON adapter that transforms each row into its Java model representation
+     * @param callbackExecutor executor where results are delivered
+     */
+    SodaStreamingRequest(HttpClient httpClient, HttpContext httpContext, HttpRequestBase request, JsonAdapter jsonAdapter, Executor callbackExecutor) {
+        this.httpClient = httpClient;
+        this.httpContext = httpContext;
+        this.request = request;
+        this.jsonAdapter = jsonAdapter;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Enables response caching for this request
+     *
+     * @param cache       the response cache
+     * @param cacheKey    the key of this request in the response cache
+     * @param cacheMaxAge max age in milliseconds a cached response is served without revalidation
+     * @param cacheStats  counters where cache hits and misses are recorded
+     */
+    void setCache(ResponseCache cache, String cacheKey, long cacheMaxAge, CacheStats cacheStats) {
+        this.cache = cache;
+        this.cacheKey = cacheKey;
+        this.cacheMaxAge = cacheMaxAge;
+        this.cacheStats = cacheStats;
+    }
+
+    /**
+     * Executes the request and decodes the response
+     *
+     * @see Runnable#run()
+     */
+    @Override
+    public void run() {
+        int status = 0;
+        Map<String, String> headers = null;
+        HttpEntity entity = null;
+        if (cancelled) {
+            return;
+        }
+        try {
+            CacheEntry cached = cache != null ? cache.get(cacheKey) : null;
+            if (cached != null) {
+                if (cached.isFresh(cacheMaxAge, System.currentTimeMillis())) {
+                    cacheStats.recordHit();
+                    replay(cached, false);
+                    return;
+                }
+                if (cached.getETag() != null) {
+                    request.setHeader("If-None-Match", cached.getETag());
+                }
+                if (cached.getLastModified() != null) {
+                    request.setHeader("If-Modified-Since", cached.getLastModified());
+                }
+            }
+            HttpResponse httpResponse = httpClient.execute(request, httpContext);
+            StatusLine statusLine = httpResponse.getStatusLine();
+            status = statusLine.getStatusCode();
+            headers = parseHeaders(httpResponse.getAllHeaders());
+            entity = httpResponse.getEntity();
+            if (status == HttpStatus.SC_NOT_MODIFIED && cached != null) {
+                if (entity != null) {
+                    entity.consumeContent();
+                }
+                cacheStats.recordHit();
+                replay(cached.revalidated(System.currentTimeMillis()), true);
+            } else if (status >= 300) {
+                String body = entity == null ? null : EntityUtils.toString(entity, DEFAULT_CHARSET);
+                responded = true;
+                onFailure(status, headers, toResponseError(new HttpResponseException(status, statusLine.getReasonPhrase()), body));
+            } else {
+                jsonAdapter.addFieldMappings(headers.get(FIELDS_HEADER), headers.get(TYPES_HEADER));
+                boolean array = false;
+                if (entity != null) {
+                    String charset = EntityUtils.getContentCharSet(entity);
+                    InputStream content = entity.getContent();
+                    CopyingInputStream copy = null;
+                    if (cache != null) {
+                        cacheStats.recordMiss();
+                        if (isCacheable(headers) && (charset == null || charset.equalsIgnoreCase(CACHE_CHARSET))) {
+                            content = copy = new CopyingInputStream(content, cache.getMaxEntrySize());
+                        }
+                    }
+                    array = decode(content, charset == null ? DEFAULT_CHARSET : charset);
+                    if (copy != null && copy.isComplete()) {
+                        CacheEntry entry = new CacheEntry(copy.toByteArray(), headers, System.currentTimeMillis(), array);
+                        List<?> entities = getDecodedRows();
+                        cache.put(cacheKey, entities != null ? entry.withEntities(jsonAdapter.getTarget(), entities) : entry);
+                    }
+                }
+                responded = true;
+                onSuccess(status, headers, array);
+            }
+        } catch (IOException e) {
+            request.abort();
+            onFailure(status, headers, toResponseError(e, null));
+        } catch (JSONException e) {
+            request.abort();
+            onFailure(status, headers, toResponseError(new SodaTypeConversionException(e), null));
+        } catch (IllegalAccessException e) {
+            request.abort();
+            onFailure(status, headers, toResponseError(new SodaTypeConversionException(e), null));
+        } catch (InstantiationException e) {
+            request.abort();
+            onFailure(status, headers, toResponseError(new SodaTypeConversionException(e), null));
+        } catch (RuntimeException e) {
+            if (responded) {
+                throw e;
+            }
+            request.abort();
+            onFailure(status, headers, toResponseError(e, null));
+        }
+    }
+
+    /**
+     * Private helper that decodes a response body passing every row to {@link #onRow(Object, int)}
+     *
+     * @return whether the body was an array of rows or a single object
+     */
+    private boolean decode(InputStream content, String charset) throws IOException, JSONException, IllegalAccessException, InstantiationException {
+        JsonRowReader rows = new JsonRowReader(new InputStreamReader(content, charset));
+        try {
+            int index = 0;
+            while (rows.hasNext()) {
+                checkCancelled();
+                onRow(jsonAdapter.fromJsonObject(rows.next()), index++);
+            }
+            if (content instanceof CopyingInputStream) {
+                ((CopyingInputStream) content).drain();
+            }
+            return rows.isArray();
+        } finally {
+            rows.close();
+        }
+    }
+
+    /**
+     * Private helper that serves a cached response reusing its decoded entities when they were decoded to the same
+     * model class, otherwise decoding its body and storing the entities back for the next hit.
+     * The entry is only written back when it changed, revalidated entries are stored in every tier while newly
+     * decoded entities only go to the tiers that keep them
+     *
+     * @param cached      the cached entry
+     * @param revalidated whether the entry was just revalidated with the server
+     */
+    private void replay(CacheEntry cached, boolean revalidated) throws IOException, JSONException, IllegalAccessException, InstantiationException {
+        Map<String, String> headers = cached.getHeaders();
+        List<Object> entities = cached.getEntities(jsonAdapter.getTarget());
+        if (entities != null) {
+            for (int i = 0; i < entities.size(); i++) {
+                checkCancelled();
+                onRow(entities.get(i), i);
+            }
+            if (revalidated) {
+                cache.put(cacheKey, cached);
+            }
+        } else {
+            jsonAdapter.addFieldMappings(headers.get(FIELDS_HEADER), headers.get(TYPES_HEADER));
+            try {
+                decode(new ByteArrayInputStream(cached.getBody()), CACHE_CHARSET);
+            } catch (JSONException e) {
+                cache.remove(cacheKey);
+                throw e;
+            }
+            List<?> decoded = getDecodedRows();
+            CacheEntry entry = decoded != null ? cached.withEntities(jsonAdapter.getTarget(), decoded) : cached;
+            if (revalidated) {
+                cache.put(cacheKey, entry);
+            } else if (decoded != null) {
+                cache.putDecoded(cacheKey, entry);
+            }
+        }
+        responded = true;
+        onSuccess(HttpStatus.SC_OK, headers, cached.isArray());
+    }
+
+    /**
+     * Private helper that checks whether the server allows storing a response
+     */
+    private boolean isCacheable(Map<String, String> headers) {
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase("Cache-Control") && header.getValue().contains("no-store")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Invoked on the background thread for each decoded row
+     *
+     * @param row   the row in its Java model representation
+     * @param index the row index in the response
+     */
+    protected abstract void onRow(Object row, int index);
+
+    /**
+     * Subclasses that hold on to all decoded rows expose them here so they are kept along with the cached response
+     * and reused on the next hit without decoding its body again
+     *
+     * @return the rows decoded so far or null if rows are not retained
+     */
+    protected List<?> getDecodedRows() {
+        return null;
+    }
+
+    /**
+     * Invoked on the background thread once all rows have been decoded
+     *
+     * @param status  the status code
+     * @param headers the response headers
+     * @param array   whether the response body was an array of rows or a single object
+     */
+    protected abstract void onSuccess(int status, Map<String, String> headers, boolean array);
+
+    /**
+     * Invoked on the background thread upon request failure
+     *
+     * @param status  the status code or 0 if the server could not be reached
+     * @param headers the response headers if any
+     * @param error   the error
+     */
+    protected abstract void onFailure(int status, Map<String, String> headers, ResponseError error);
+
+    /**
+     * Delivers results through the callback executor
+     *
+     * @param runnable the delivery
+     */
+    protected void deliver(final Runnable runnable) {
+        if (!cancelled) {
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (!cancelled) {
+                        runnable.run();
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Cancels this request aborting the download if it is in progress
+     *
+     * @see RequestHandle#cancel()
+     */
+    @Override
+    public void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            request.abort();
+        }
+    }
+
+    /**
+     * @see RequestHandle#isCancelled()
+     */
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @see RequestHandle#isDone()
+     */
+    @Override
+    public boolean isDone() {
+        return done || cancelled;
+    }
+
+    /**
+     * Marks this request as done, invoked by subclasses once the final results have been delivered
+     */
+    protected void finish() {
+        done = true;
+    }
+
+    /**
+     * Private helper that stops decoding once the request is cancelled
+     */
+    private void checkCancelled() throws InterruptedIOException {
+        if (cancelled) {
+            throw new InterruptedIOException("Request cancelled");
+        }
+    }
+
+    /**
+     * Private helper that transforms response headers into a map
+     */
+    private Map<String, String> parseHeaders(Header[] hds) {
+        Map<String, String> headers = new HashMap<String, String>();
+        if (hds != null) {
+            for (Header header : hds) {
+                headers.put(header.getName(), header.getValue());
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * Private helper that builds a response error out of a failure and the SODA error body if any
+     */
+    private ResponseError toResponseError(Throwable throwable, String body) {
+        ResponseError responseError;
+        JSONObject json = null;
+        if (body != null) {
+            try {
+                json = new JSONObject(body);
+            } catch (JSONException e) {
+                json = null;
+            }
+        }
+        if (json != null) {
+            responseError = new ResponseError(json.optString("code"), json.optString("message"), json.optJSONObject("data"));
+        } else {
+            responseError = new ResponseError(null, throwable.getMessage(), null);
+        }
+        responseError.setError(throwable);
+        return responseError;
+    }
+
+    /**
+     * An input stream that copies what is read from it up to a limit, used to store response bodies in the cache
+     * while they are decoded. Once the limit is exceeded the copy is discarded.
+     */
+    private static final class CopyingInputStream extends FilterInputStream {
+
+        private final long limit;
+
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        private boolean eof;
+
+        private CopyingInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                eof = true;
+            } else if (copy != null) {
+                copy.write(b);
+                checkLimit();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) throws IOException {
+            int read = super.read(buffer, offset, count);
+            if (read < 0) {
+                eof = true;
+            } else if (copy != null) {
+                copy.write(buffer, offset, read);
+                checkLimit();
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            copy = null;
+            return super.skip(count);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        /**
+         * Reads what the decoder did not need, e.g. trailing whitespace, so the copy holds the whole body
+         */
+        private void drain() throws IOException {
+            byte[] buffer = new byte[256];
+            while (copy != null && !eof) {
+                read(buffer, 0, buffer.length);
+            }
+        }
+
+        /**
+         * @return whether the whole body was read and copied
+         */
+        private boolean isComplete() {
+            return copy != null && eof;
+        }
+
+        private byte[] toByteArray() {
+            return copy.toByteArray();
+        }
+
+        private void checkLimit() {
+            if (copy.size() > limit) {
+                copy = null;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,210 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable cached response. Holds the raw response body along with the headers needed to decode it and
+ * revalidate it, and optionally the entities it was already decoded to so they can be reused without parsing the body again.
+ * Decoded entities are only kept in memory, they are never written to disk.
+ */
+public final class CacheEntry {
+
+    /**
+     * The ETag header
+     */
+    public static final String ETAG_HEADER = "ETag";
+
+    /**
+     * The Last-Modified header
+     */
+    public static final String LAST_MODIFIED_HEADER = "Last-Modified";
+
+    /**
+     * The decoded response body
+     */
+    private final byte[] body;
+
+    /**
+     * The response headers
+     */
+    private final Map<String, String> headers;
+
+    /**
+     * When the response was stored or last revalidated, in milliseconds since epoch
+     */
+    private final long storedAt;
+
+    /**
+     * Whether the response body is an array of rows or a single object
+     */
+    private final boolean array;
+
+    /**
+     * The model class the entities were decoded to
+     */
+    private final Class<?> mapping;
+
+    /**
+     * The decoded entities or null
+     */
+    private final List<Object> entities;
+
+    /**
+     * Constructs a cache entry without decoded entities
+     *
+     * @param body     the response body
+     * @param headers  the response headers
+     * @param storedAt when the response was stored, in milliseconds since epoch
+     * @param array    whether the response body is an array of rows or a single object
+     */
+    public CacheEntry(byte[] body, Map<String, String> headers, long storedAt, boolean array) {
+        this(body, headers, storedAt, array, null, null);
+    }
+
+    /**
+     * Private constructor shared by the copy methods
+     */
+    private CacheEntry(byte[] body, Map<String, String> headers, long storedAt, boolean array, Class<?> mapping, List<Object> entities) {
+        this.body = body;
+        this.headers = Collections.unmodifiableMap(new HashMap<String, String>(headers));
+        this.storedAt = storedAt;
+        this.array = array;
+        this.mapping = mapping;
+        this.entities = entities;
+    }
+
+    /**
+     * @return the response body
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * @return the response headers
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return the ETag validator or null
+     */
+    public String getETag() {
+        return getHeader(ETAG_HEADER);
+    }
+
+    /**
+     * @return the Last-Modified validator or null
+     */
+    public String getLastModified() {
+        return getHeader(LAST_MODIFIED_HEADER);
+    }
+
+    /**
+     * @param name the header name, case insensitive
+     * @return the header value or null
+     */
+    public String getHeader(String name) {
+        String value = headers.get(name);
+        if (value == null) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                if (header.getKey().equalsIgnoreCase(name)) {
+                    return header.getValue();
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return when the response was stored or last revalidated, in milliseconds since epoch
+     */
+    public long getStoredAt() {
+        return storedAt;
+    }
+
+    /**
+     * @return whether the response body is an array of rows or a single object
+     */
+    public boolean isArray() {
+        return array;
+    }
+
+    /**
+     * @return whether the entry carries a validator the server can use to answer with a 304
+     */
+    public boolean isRevalidatable() {
+        return getETag() != null || getLastModified() != null;
+    }
+
+    /**
+     * @param maxAge the max age in milliseconds
+     * @param now    the current time in milliseconds since epoch
+     * @return whether the entry can be used without contacting the server
+     */
+    public boolean isFresh(long maxAge, long now) {
+        return now - storedAt < maxAge;
+    }
+
+    /**
+     * @param mapping the model class
+     * @return the entities previously decoded to the mapping class or null if the body has to be decoded
+     */
+    public List<Object> getEntities(Class<?> mapping) {
+        return mapping != null && mapping == this.mapping ? entities : null;
+    }
+
+    /**
+     * @return the approximate size in bytes this entry takes in memory
+     */
+    public int getSize() {
+        int size = body.length;
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            size += 2 * (header.getKey().length() + header.getValue().length());
+        }
+        // decoded entities are accounted as roughly the size of the body they were decoded from
+        return entities != null ? size + body.length : size;
+    }
+
+    /**
+     * @param storedAt when the response was revalidated, in milliseconds since epoch
+     * @return a copy of this entry revalidated at a new time
+     */
+    public CacheEntry revalidated(long storedAt) {
+        return new CacheEntry(body, headers, storedAt, array, mapping, entities);
+    }
+
+    /**
+     * @param mapping  the model class the entities were decoded to
+     * @param entities the decoded entities
+     * @return a copy of this entry holding the decoded entities
+     */
+    public CacheEntry withEntities(Class<?> mapping, List<?> entities) {
+        return new CacheEntry(body, headers, storedAt, array, mapping, Collections.unmodifiableList(new ArrayList<Object>(entities)));
+    }
+
+    /**
+     * @return a copy of this entry without decoded entities
+     */
+    public CacheEntry withoutEntities() {
+        return entities == null ? this : new CacheEntry(body, headers, storedAt, array, null, null);
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread safe response cache counters.
+ * A hit is a response served from the cache, either because it was fresh or because the server answered 304 Not Modified.
+ * A miss is a response that had to be downloaded and decoded.
+ */
+public class CacheStats {
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Records a cache hit
+     */
+    public void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    /**
+     * Records a cache miss
+     */
+    public void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    /**
+     * @return the number of responses served from the cache
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of responses downloaded from the server
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Resets both counters
+     */
+    public void reset() {
+        hits.set(0);
+        misses.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStats{hits=%d, misses=%d}", getHitCount(), getMissCount());
+    }
+
+}
@@ -0,0 +1,307 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client.cache;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Response cache that persists entries as files in a directory, e.g. Context#getCacheDir(), bounded by the total
+ * size in bytes of its files. The least recently used files are deleted first, recency survives restarts through
+ * the file modification time. Decoded entities are not persisted, only the response body and headers.
+ */
+public class DiskResponseCache implements ResponseCache {
+
+    /**
+     * Version of the file format, files written with other versions are discarded
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Suffix of the cache files
+     */
+    private static final String SUFFIX = ".soda";
+
+    /**
+     * The cache directory
+     */
+    private final File directory;
+
+    /**
+     * The max size in bytes of all files
+     */
+    private final long maxSize;
+
+    /**
+     * File names to file sizes in access order, lazily loaded from the directory
+     */
+    private LinkedHashMap<String, Long> files;
+
+    /**
+     * The current size in bytes of all files
+     */
+    private long size;
+
+    /**
+     * Constructs a disk cache
+     *
+     * @param directory the directory where entries are stored, created if it does not exist
+     * @param maxSize   the max size in bytes of all entries
+     */
+    public DiskResponseCache(File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @see ResponseCache#get(String)
+     */
+    @Override
+    public synchronized CacheEntry get(String key) {
+        String name = fileName(key);
+        if (!getFiles().containsKey(name)) {
+            return null;
+        }
+        File file = new File(directory, name);
+        try {
+            CacheEntry entry = read(file, key);
+            if (entry != null) {
+                files.get(name);
+                file.setLastModified(System.currentTimeMillis());
+            }
+            return entry;
+        } catch (IOException e) {
+            Log.w("socrata", String.format("DiskResponseCache : discarding unreadable entry %s", file), e);
+            delete(name);
+            return null;
+        }
+    }
+
+    /**
+     * @see ResponseCache#put(String, CacheEntry)
+     */
+    @Override
+    public synchronized void put(String key, CacheEntry entry) {
+        String name = fileName(key);
+        delete(name);
+        if (entry.getBody().length > maxSize) {
+            return;
+        }
+        File file = new File(directory, name);
+        File tmp = new File(directory, name + ".tmp");
+        try {
+            write(tmp, key, entry);
+            if (!tmp.renameTo(file)) {
+                throw new IOException("Unable to rename " + tmp);
+            }
+            long length = file.length();
+            getFiles().put(name, length);
+            size += length;
+            trimToSize();
+        } catch (IOException e) {
+            Log.w("socrata", String.format("DiskResponseCache : unable to write entry %s", file), e);
+            tmp.delete();
+            file.delete();
+        }
+    }
+
+    /**
+     * Decoded entities are not persisted, the stored body is left as it is
+     *
+     * @see ResponseCache#putDecoded(String, CacheEntry)
+     */
+    @Override
+    public void putDecoded(String key, CacheEntry entry) {
+    }
+
+    /**
+     * @see ResponseCache#remove(String)
+     */
+    @Override
+    public synchronized void remove(String key) {
+        delete(fileName(key));
+    }
+
+    /**
+     * @see ResponseCache#clear()
+     */
+    @Override
+    public synchronized void clear() {
+        for (String name : getFiles().keySet().toArray(new String[files.size()])) {
+            delete(name);
+        }
+    }
+
+    /**
+     * @see ResponseCache#getMaxEntrySize()
+     */
+    @Override
+    public long getMaxEntrySize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the current size in bytes of all entries
+     */
+    public synchronized long size() {
+        getFiles();
+        return size;
+    }
+
+    /**
+     * Private helper that loads the existing files ordered by modification time the first time they are needed
+     */
+    private LinkedHashMap<String, Long> getFiles() {
+        if (files == null) {
+            files = new LinkedHashMap<String, Long>(16, 0.75f, true);
+            size = 0;
+            directory.mkdirs();
+            File[] existing = directory.listFiles();
+            if (existing != null) {
+                final Map<File, Long> lastModified = new HashMap<File, Long>();
+                for (File file : existing) {
+                    lastModified.put(file, file.lastModified());
+                }
+                Arrays.sort(existing, new Comparator<File>() {
+                    @Override
+                    public int compare(File lhs, File rhs) {
+                        return lastModified.get(lhs).compareTo(lastModified.get(rhs));
+                    }
+                });
+                for (File file : existing) {
+                    if (file.getName().endsWith(SUFFIX)) {
+                        files.put(file.getName(), file.length());
+                        size += file.length();
+                    } else if (file.getName().endsWith(SUFFIX + ".tmp")) {
+                        file.delete();
+                    }
+                }
+            }
+            trimToSize();
+        }
+        return files;
+    }
+
+    /**
+     * Private helper that deletes the least recently used files until the cache fits its max size
+     */
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Long>> iterator = files.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            new File(directory, eldest.getKey()).delete();
+            size -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Private helper that deletes a file if present
+     */
+    private void delete(String name) {
+        Long length = getFiles().remove(name);
+        if (length != null) {
+            new File(directory, name).delete();
+            size -= length;
+        }
+    }
+
+    /**
+     * Private helper that writes an entry to a file
+     */
+    private static void write(File file, String key, CacheEntry entry) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(VERSION);
+            out.writeUTF(key);
+            out.writeLong(entry.getStoredAt());
+            out.writeBoolean(entry.isArray());
+            Map<String, String> headers = entry.getHeaders();
+            out.writeInt(headers.size());
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                out.writeUTF(header.getKey());
+                out.writeUTF(header.getValue());
+            }
+            byte[] body = entry.getBody();
+            out.writeInt(body.length);
+            out.write(body);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Private helper that reads an entry from a file
+     *
+     * @return the entry or null if the file belongs to a different key
+     */
+    private static CacheEntry read(File file, String key) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != VERSION) {
+                throw new IOException("Unknown cache file version");
+            }
+            if (!key.equals(in.readUTF())) {
+                return null;
+            }
+            long storedAt = in.readLong();
+            boolean array = in.readBoolean();
+            int headerCount = in.readInt();
+            Map<String, String> headers = new HashMap<String, String>(headerCount);
+            for (int i = 0; i < headerCount; i++) {
+                headers.put(in.readUTF(), in.readUTF());
+            }
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return new CacheEntry(body, headers, storedAt, array);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Private helper that derives a file name from a cache key
+     */
+    private static String fileName(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes("UTF-8"));
+            StringBuilder name = new StringBuilder(digest.length * 2 + SUFFIX.length());
+            for (byte b : digest) {
+                name.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return name.append(SUFFIX).toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client.cache;
+
+import android.support.v4.util.LruCache;
+
+/**
+ * In memory response cache bounded by the approximate size in bytes of its entries.
+ * The least recently used entries are evicted first. Entries keep their decoded entities so a hit
+ * or a 304 revalidation can skip decoding altogether.
+ */
+public class MemoryResponseCache implements ResponseCache {
+
+    /**
+     * The backing LRU cache
+     */
+    private final LruCache<String, CacheEntry> entries;
+
+    /**
+     * The max size in bytes
+     */
+    private final int maxSize;
+
+    /**
+     * Constructs a memory cache
+     *
+     * @param maxSize the max size in bytes of all entries
+     */
+    public MemoryResponseCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LruCache<String, CacheEntry>(maxSize) {
+            @Override
+            protected int sizeOf(String key, CacheEntry value) {
+                return value.getSize();
+            }
+        };
+    }
+
+    /**
+     * @see ResponseCache#get(String)
+     */
+    @Override
+    public CacheEntry get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * @see ResponseCache#put(String, CacheEntry)
+     */
+    @Override
+    public void put(String key, CacheEntry entry) {
+        if (entry.getSize() > maxSize) {
+            entries.remove(key);
+        } else {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * @see ResponseCache#putDecoded(String, CacheEntry)
+     */
+    @Override
+    public void putDecoded(String key, CacheEntry entry) {
+        put(key, entry);
+    }
+
+    /**
+     * @see ResponseCache#remove(String)
+     */
+    @Override
+    public void remove(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * @see ResponseCache#clear()
+     */
+    @Override
+    public void clear() {
+        entries.evictAll();
+    }
+
+    /**
+     * @see ResponseCache#getMaxEntrySize()
+     */
+    @Override
+    public long getMaxEntrySize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the current size in bytes of all entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+}
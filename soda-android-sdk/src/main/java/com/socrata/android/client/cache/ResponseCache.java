@@ -0,0 +1,63 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client.cache;
+
+/**
+ * Pluggable storage for SODA responses used by the Consumer to avoid downloading and decoding a query result
+ * that was recently fetched. Implementations must be thread safe as entries are read and written from the
+ * background threads where requests are executed.
+ */
+public interface ResponseCache {
+
+    /**
+     * @param key the cache key
+     * @return the cached entry or null if there is none
+     */
+    CacheEntry get(String key);
+
+    /**
+     * Stores an entry replacing any previous one for the same key
+     *
+     * @param key   the cache key
+     * @param entry the entry
+     */
+    void put(String key, CacheEntry entry);
+
+    /**
+     * Stores the decoded entities of an entry whose body and headers are already cached under the same key,
+     * e.g. after a cached body was decoded for the first time. Caches that do not keep decoded entities ignore it
+     * so bodies are not written again on every hit
+     *
+     * @param key   the cache key
+     * @param entry the entry carrying its decoded entities
+     */
+    void putDecoded(String key, CacheEntry entry);
+
+    /**
+     * Removes an entry if present
+     *
+     * @param key the cache key
+     */
+    void remove(String key);
+
+    /**
+     * Removes all entries
+     */
+    void clear();
+
+    /**
+     * @return the size in bytes of the largest entry this cache is able to hold, responses larger than this are not buffered
+     */
+    long getMaxEntrySize();
+
+}
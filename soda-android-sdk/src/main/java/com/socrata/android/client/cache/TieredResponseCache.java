@@ -0,0 +1,101 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.client.cache;
+
+/**
+ * A two level response cache, typically a {@link MemoryResponseCache} in front of a {@link DiskResponseCache}.
+ * Lookups fall through to the second level and promote hits to the first, writes go to both levels.
+ */
+public class TieredResponseCache implements ResponseCache {
+
+    /**
+     * The first level, looked up first
+     */
+    private final ResponseCache first;
+
+    /**
+     * The second level
+     */
+    private final ResponseCache second;
+
+    /**
+     * Constructs a tiered cache
+     *
+     * @param first  the first level e.g. memory
+     * @param second the second level e.g. disk
+     */
+    public TieredResponseCache(ResponseCache first, ResponseCache second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    /**
+     * @see ResponseCache#get(String)
+     */
+    @Override
+    public CacheEntry get(String key) {
+        CacheEntry entry = first.get(key);
+        if (entry == null) {
+            entry = second.get(key);
+            if (entry != null) {
+                first.put(key, entry);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * @see ResponseCache#put(String, CacheEntry)
+     */
+    @Override
+    public void put(String key, CacheEntry entry) {
+        first.put(key, entry);
+        second.put(key, entry);
+    }
+
+    /**
+     * @see ResponseCache#putDecoded(String, CacheEntry)
+     */
+    @Override
+    public void putDecoded(String key, CacheEntry entry) {
+        first.putDecoded(key, entry);
+        second.putDecoded(key, entry);
+    }
+
+    /**
+     * @see ResponseCache#remove(String)
+     */
+    @Override
+    public void remove(String key) {
+        first.remove(key);
+        second.remove(key);
+    }
+
+    /**
+     * @see ResponseCache#clear()
+     */
+    @Override
+    public void clear() {
+        first.clear();
+        second.clear();
+    }
+
+    /**
+     * @see ResponseCache#getMaxEntrySize()
+     */
+    @Override
+    public long getMaxEntrySize() {
+        return Math.max(first.getMaxEntrySize(), second.getMaxEntrySize());
+    }
+
+}
@@ -14,7 +14,6 @@ package com.socrata.android.client.converters;
 
 import com.socrata.android.client.DataTypesMapper;
 import com.socrata.android.client.JsonAdapter;
-import com.socrata.android.client.SodaField;
 import com.socrata.android.client.SodaTypeConversionException;
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -23,27 +22,21 @@ import org.json.JSONObject;
 import java.lang.reflect.Field;
 
 /**
- * Converter used for embedded SODA objects annotated with SodaEntity
+ * Converter used for embedded SODA objects annotated with SodaEntity.
+ * Adapters for embedded types are cached by the DataTypesMapper so values are not reflectively scanned per row.
  * @see DataTypeConverter
  */
-@SuppressWarnings("unchecked")
 public class EmbeddedSodaEntityConverter implements DataTypeConverter<Object> {
 
     @Override
     public Object getValue(DataTypesMapper dataTypesMapper, Field field, String type, Object value) {
-        Class<?> target = field.getType();
-        JsonAdapter<?> adapter = new JsonAdapter(target, dataTypesMapper);
+        JsonAdapter<?> adapter = dataTypesMapper.getEmbeddedAdapter(field.getType());
         Object result = null;
         if (value != null) {
             try {
                 if (JSONArray.class.isAssignableFrom(value.getClass())) {
                     result = adapter.fromJsonArray((JSONArray) value);
                 } else if (JSONObject.class.isAssignableFrom(value.getClass())) {
-                    //SODA does not provide header type values for embedded datatypes so we create mappings for the default properties
-                    for (Field innerField : target.getDeclaredFields()) {
-                        String sodaFieldName = innerField.isAnnotationPresent(SodaField.class) ? innerField.getAnnotation(SodaField.class).value() : innerField.getName();
-                        adapter.addFieldMapping(sodaFieldName, DataTypesMapper.UNKNOWN_TYPE);
-                    }
                     result = adapter.fromJsonObject((JSONObject) value);
                 }
             } catch (IllegalAccessException e) {
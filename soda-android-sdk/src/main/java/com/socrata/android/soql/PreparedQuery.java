@@ -0,0 +1,203 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.soql;
+
+import com.socrata.android.soql.clauses.BuildCapable;
+import com.socrata.android.soql.clauses.Parameter;
+import com.socrata.android.soql.utils.LiteralUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A query compiled once into a template with typed parameters, e.g. gt("time", param("since", Date.class)).
+ * The query is rendered when prepared, binding values only renders their literals between the precomputed
+ * segments of the template so running the same query shape with different values doesn't rebuild it.
+ * Changes to the query after it is prepared are not reflected in the template.
+ * Bound values are held by the prepared query, so it is not thread safe. Threads sharing a template should bind
+ * values on their own {@link #copy()}.
+ */
+public class PreparedQuery implements BuildCapable {
+
+    /**
+     * The rendered query between parameters, one more than the parameter slots
+     */
+    private final String[] segments;
+
+    /**
+     * The name of the parameter at each slot, a parameter may appear more than once
+     */
+    private final String[] slots;
+
+    /**
+     * The type of each parameter by name, null if the type could not be loaded
+     */
+    private final Map<String, Class<?>> types;
+
+    /**
+     * The rendered literals bound to each parameter
+     */
+    private final Map<String, String> literals;
+
+    /**
+     * Length of the segments
+     */
+    private final int templateLength;
+
+    /**
+     * The remote dataset of the prepared query
+     */
+    private final String dataset;
+
+    /**
+     * The model class results are unmarshalled to
+     */
+    private final Class<?> mapping;
+
+    /**
+     * Compiles a query into a template
+     *
+     * @param query the query with parameters
+     */
+    public PreparedQuery(Query query) {
+        this.dataset = query.getDataset();
+        this.mapping = query.getMapping();
+        this.types = new HashMap<String, Class<?>>();
+        this.literals = new HashMap<String, String>();
+        String template = query.build();
+        List<String> segments = new ArrayList<String>();
+        List<String> slots = new ArrayList<String>();
+        int start = 0;
+        int length = 0;
+        int open;
+        while ((open = template.indexOf(Parameter.MARKER, start)) >= 0) {
+            int separator = template.indexOf(Parameter.MARKER, open + 1);
+            int close = template.indexOf(Parameter.MARKER, separator + 1);
+            String name = template.substring(open + 1, separator);
+            segments.add(template.substring(start, open));
+            length += open - start;
+            slots.add(name);
+            types.put(name, loadType(template.substring(separator + 1, close)));
+            start = close + 1;
+        }
+        segments.add(template.substring(start));
+        this.templateLength = length + template.length() - start;
+        this.segments = segments.toArray(new String[segments.size()]);
+        this.slots = slots.toArray(new String[slots.size()]);
+    }
+
+    /**
+     * Private constructor of copies sharing the template of a prepared query
+     *
+     * @param template the prepared query
+     */
+    private PreparedQuery(PreparedQuery template) {
+        this.segments = template.segments;
+        this.slots = template.slots;
+        this.types = template.types;
+        this.templateLength = template.templateLength;
+        this.dataset = template.dataset;
+        this.mapping = template.mapping;
+        this.literals = new HashMap<String, String>(template.literals);
+    }
+
+    /**
+     * Private helper that loads the type of a parameter, values of types that can not be loaded are not checked
+     */
+    private static Class<?> loadType(String name) {
+        try {
+            return Class.forName(name, false, PreparedQuery.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the remote dataset of the prepared query
+     */
+    public String getDataset() {
+        return dataset;
+    }
+
+    /**
+     * @return the model class results are unmarshalled to
+     */
+    public Class<?> getMapping() {
+        return mapping;
+    }
+
+    /**
+     * Copies the prepared query without compiling it again, e.g. to bind values on another thread. The copy starts
+     * with the values bound so far and later bindings of either query don't affect the other
+     *
+     * @return the copy
+     */
+    public PreparedQuery copy() {
+        return new PreparedQuery(this);
+    }
+
+    /**
+     * Binds a value to a parameter, replacing the value bound to it before. The value is held by this prepared
+     * query, see {@link #copy()} to bind values concurrently
+     *
+     * @param name  the parameter name
+     * @param value the value, null renders as null
+     * @return this prepared query
+     * @throws IllegalArgumentException if the query has no such parameter or the value is not of the parameter type
+     */
+    public PreparedQuery bind(String name, Object value) {
+        if (!types.containsKey(name)) {
+            throw new IllegalArgumentException(String.format("Unknown parameter %s", name));
+        }
+        Class<?> type = types.get(name);
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalArgumentException(String.format("Parameter %s expects %s values", name, type.getName()));
+        }
+        literals.put(name, LiteralUtils.toLiteral(value));
+        return this;
+    }
+
+    /**
+     * @see com.socrata.android.soql.clauses.BuildCapable#build()
+     */
+    @Override
+    public String build() {
+        int length = templateLength;
+        for (String slot : slots) {
+            String literal = literals.get(slot);
+            length += literal != null ? literal.length() : 0;
+        }
+        StringBuilder builder = new StringBuilder(length);
+        appendTo(builder);
+        return builder.toString();
+    }
+
+    /**
+     * @throws IllegalStateException if a parameter is not bound
+     * @see com.socrata.android.soql.clauses.BuildCapable#appendTo(StringBuilder)
+     */
+    @Override
+    public void appendTo(StringBuilder builder) {
+        for (int i = 0; i < slots.length; i++) {
+            String literal = literals.get(slots[i]);
+            if (literal == null) {
+                throw new IllegalStateException(String.format("Parameter %s is not bound", slots[i]));
+            }
+            builder.append(segments[i]).append(literal);
+        }
+        builder.append(segments[slots.length]);
+    }
+
+}
@@ -14,11 +14,12 @@ package com.socrata.android.soql;
 
 import com.socrata.android.soql.clauses.*;
 import com.socrata.android.soql.datatypes.GeoBox;
-import com.socrata.android.soql.utils.BuildUtils;
+import com.socrata.android.soql.utils.CanonicalUtils;
+import com.socrata.android.soql.utils.LiteralUtils;
 
 import static com.socrata.android.soql.clauses.Expression.*;
+import static com.socrata.android.soql.utils.BuildUtils.appendClause;
 import static com.socrata.android.soql.utils.BuildUtils.asExpressions;
-import static com.socrata.android.soql.utils.BuildUtils.buildAll;
 
 /**
  * Main interface to build structured queries
@@ -67,6 +68,16 @@ public class Query implements BuildCapable {
      */
     private Integer limit = 25;
 
+    /**
+     * The unique ordered column used for keyset pagination or null when paging by offset
+     */
+    private String keysetColumn;
+
+    /**
+     * The keyset column value of the last row of the previous page or null for the first page
+     */
+    private Object seekAfter;
+
     /**
      * The dataset this query is referring to
      */
@@ -88,6 +99,24 @@ public class Query implements BuildCapable {
         this.mapping = mapping;
     }
 
+    /**
+     * Constructs a copy of a SODA query. Clauses are immutable so later changes to either query don't affect the other
+     *
+     * @param query the query to copy
+     */
+    public Query(Query query) {
+        this.select = query.select;
+        this.where = query.where;
+        this.groupBy = query.groupBy;
+        this.orderBy = query.orderBy;
+        this.offset = query.offset;
+        this.limit = query.limit;
+        this.keysetColumn = query.keysetColumn;
+        this.seekAfter = query.seekAfter;
+        this.dataset = query.dataset;
+        this.mapping = query.mapping;
+    }
+
     /**
      * @see Select
      */
@@ -130,6 +159,27 @@ public class Query implements BuildCapable {
         return limit;
     }
 
+    /**
+     * @return the unique ordered column used for keyset pagination or null when paging by offset
+     */
+    public String getKeysetColumn() {
+        return keysetColumn;
+    }
+
+    /**
+     * @return the keyset column value pages start after or null for the first page
+     */
+    public Object getSeekAfter() {
+        return seekAfter;
+    }
+
+    /**
+     * @return whether this query pages with a keyset instead of an offset
+     */
+    public boolean isKeyset() {
+        return keysetColumn != null;
+    }
+
     /**
      * @return dataset this query is referring to
      */
@@ -279,13 +329,100 @@ public class Query implements BuildCapable {
         this.limit = limit;
     }
 
+    /**
+     * Switches this query to keyset (seek) pagination over a unique ordered column such as :id.
+     * Instead of skipping rows with an offset, which gets slower as the offset grows and shifts when the dataset
+     * changes, each page is built as 'where column > last value order by column limit n' out of the last row of the
+     * previous page. The query offset and order are ignored while keyset pagination is enabled.
+     *
+     * @param column the unique ordered column or null to page by offset
+     */
+    public void setKeyset(String column) {
+        this.keysetColumn = column;
+        this.seekAfter = null;
+    }
+
+    /**
+     * Moves a keyset paginated query to the page that starts after a keyset column value
+     *
+     * @param value the keyset column value of the last row of the previous page or null for the first page
+     */
+    public void seekAfter(Object value) {
+        this.seekAfter = value;
+    }
+
+    /**
+     * @return the canonical form of this query, the same for equivalent queries whose where expressions were added
+     * in a different order, repeated or wrapped in redundant parentheses
+     * @see CanonicalUtils#canonicalize(String)
+     */
+    public String canonical() {
+        return CanonicalUtils.canonicalize(build());
+    }
+
+    /**
+     * @return a 64 bit fingerprint of the dataset and canonical form of this query. Distinct queries may share a
+     * fingerprint, so keys that must tell them apart, like the consumer cache keys, use {@link #canonical()}
+     */
+    public long fingerprint() {
+        return CanonicalUtils.fingerprint(dataset + "?" + canonical());
+    }
+
+    /**
+     * Compiles this query into a template whose parameters are bound to values later
+     *
+     * @return the prepared query
+     * @see com.socrata.android.soql.clauses.Expression#param(String, Class)
+     */
+    public PreparedQuery prepare() {
+        return new PreparedQuery(this);
+    }
+
     /**
      * @see com.socrata.android.soql.clauses.BuildCapable#build()
      */
     @Override
     public String build() {
-        BuildCapable[] parts = new BuildCapable[]{getSelect(), getWhere(), getGroupBy(), getOrderBy(), new Offset(getOffset()), new Limit(getLimit())};
-        return BuildUtils.join(" ", buildAll(parts)).replaceAll("  ", " ").trim();
+        StringBuilder builder = new StringBuilder(128);
+        appendTo(builder);
+        return builder.toString();
+    }
+
+    /**
+     * Appends the query clauses to a builder separated by single spaces, skipping the clauses without expressions
+     *
+     * @see com.socrata.android.soql.clauses.BuildCapable#appendTo(StringBuilder)
+     */
+    @Override
+    public void appendTo(StringBuilder builder) {
+        int start = builder.length();
+        appendClause(builder, start, getSelect());
+        if (keysetColumn != null) {
+            if (seekAfter != null) {
+                builder.append(" where ");
+                if (!getWhere().isEmpty()) {
+                    builder.append('(');
+                    getWhere().appendConditions(builder);
+                    builder.append(") and ");
+                }
+                builder.append(keysetColumn).append(" > ");
+                LiteralUtils.appendLiteral(builder, seekAfter);
+            } else {
+                appendClause(builder, start, getWhere());
+            }
+            appendClause(builder, start, getGroupBy());
+            builder.append(" order by ").append(keysetColumn);
+        } else {
+            appendClause(builder, start, getWhere());
+            appendClause(builder, start, getGroupBy());
+            appendClause(builder, start, getOrderBy());
+            if (offset != null) {
+                builder.append(" offset ").append(offset.intValue());
+            }
+        }
+        if (limit != null) {
+            builder.append(" limit ").append(limit.intValue());
+        }
     }
 
     /**
@@ -25,4 +25,12 @@ public interface BuildCapable {
      */
     String build();
 
+    /**
+     * Appends the query expression of this object to a builder, so whole queries are rendered into a single
+     * buffer without intermediate strings
+     *
+     * @param builder the builder
+     */
+    void appendTo(StringBuilder builder);
+
 }
@@ -14,24 +14,95 @@ package com.socrata.android.soql.clauses;
 
 
 import com.socrata.android.soql.datatypes.GeoBox;
+import com.socrata.android.soql.utils.LiteralUtils;
+
+import java.util.Date;
 
 import static com.socrata.android.soql.utils.BuildUtils.*;
 
 /**
  * A query expression that may appear on query clauses, encapsulates the most common
  * query operators, functions,...
+ * Expressions are immutable trees of operator, function, column and literal nodes. An expression is rendered
+ * once, when first built, and the result reused so subtrees can be shared across queries and inspected. Appending
+ * an expression to a builder writes its subtrees straight into that builder without rendering each one apart.
  */
 public class Expression implements BuildCapable {
 
     /**
-     * The query expression value as a string
+     * The kinds of expression nodes
+     */
+    public enum Kind {
+        /**
+         * Free form text e.g. 'magnitude > 3' or '*'
+         */
+        RAW,
+        /**
+         * A column reference e.g. 'magnitude'
+         */
+        COLUMN,
+        /**
+         * A literal value e.g. 'O''Brien' or 3.5
+         */
+        LITERAL,
+        /**
+         * Operands joined with an operator e.g. 'a and b'
+         */
+        OPERATOR,
+        /**
+         * A function call e.g. 'upper(a)'
+         */
+        FUNCTION,
+        /**
+         * A function preceding its operand e.g. 'not a'
+         */
+        PREFIX,
+        /**
+         * A function following its operand e.g. 'a is null' or 'a desc'
+         */
+        SUFFIX,
+        /**
+         * Operands wrapped in parentheses e.g. '(a)'
+         */
+        PARENTHESES,
+        /**
+         * An operand wrapped in single quotes without escaping e.g. 'a'
+         */
+        QUOTED
+    }
+
+    private static final BuildCapable[] NO_OPERANDS = new BuildCapable[0];
+
+    /**
+     * The kind of node
+     */
+    private final Kind kind;
+
+    /**
+     * The text of raw, column and literal nodes or the operator or function name
+     */
+    private final String name;
+
+    /**
+     * The child nodes
      */
-    private String value;
+    private final BuildCapable[] operands;
+
+    /**
+     * The value of literal nodes
+     */
+    private final Object literal;
 
     /**
      * If this query expression needs to be wrapped in parentheses
      */
-    private boolean requiresWrap;
+    private final boolean requiresWrap;
+
+    /**
+     * The expression rendered on first build, rendering is idempotent so concurrent builds are harmless.
+     * Only the node build() is invoked on keeps its rendering, subtrees appended while rendering it don't
+     */
+    private String rendered;
 
     /**
      * Constructs a query expression
@@ -39,7 +110,7 @@ public class Expression implements BuildCapable {
      * @param value
      */
     public Expression(String value) {
-        this.value = value;
+        this(value, false);
     }
 
     /**
@@ -49,15 +120,28 @@ public class Expression implements BuildCapable {
      * @param requiresWrap If this query expression needs to be wrapped in parentheses
      */
     public Expression(String value, boolean requiresWrap) {
-        this.value = value;
+        this(Kind.RAW, value, null, requiresWrap, NO_OPERANDS);
+    }
+
+    /**
+     * Private constructor of expression nodes
+     */
+    private Expression(Kind kind, String name, Object literal, boolean requiresWrap, BuildCapable... operands) {
+        this.kind = kind;
+        this.name = name;
+        this.literal = literal;
         this.requiresWrap = requiresWrap;
+        this.operands = operands;
     }
 
     /**
-     * @return The query expression value as a string
+     * @return The query expression value as a string, rendered once for nodes with operands
      */
     public String getValue() {
-        return value;
+        if (kind == Kind.RAW || kind == Kind.COLUMN || kind == Kind.LITERAL) {
+            return name;
+        }
+        return build();
     }
 
     /**
@@ -67,6 +151,34 @@ public class Expression implements BuildCapable {
         return requiresWrap;
     }
 
+    /**
+     * @return the kind of node
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the text of raw, column and literal nodes or the operator or function name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the child nodes
+     */
+    public BuildCapable[] getOperands() {
+        return operands.clone();
+    }
+
+    /**
+     * @return the value of literal nodes, e.g. a String or Date, or null
+     */
+    public Object getLiteral() {
+        return literal;
+    }
+
     /**
      * Constructs a simple expression
      */
@@ -78,28 +190,28 @@ public class Expression implements BuildCapable {
      * Constructs a function expression such as 'not a'
      */
     public static Expression infixedFunction(String function, BuildCapable arg) {
-        return new Expression(String.format("%s %s", function, arg.build()));
+        return new Expression(Kind.PREFIX, function, null, false, arg);
     }
 
     /**
      * Constructs a function expression such as 'a is not null'
      */
     public static Expression suffixedFunction(String function, BuildCapable arg) {
-        return new Expression(String.format("%s %s", arg.build(), function));
+        return new Expression(Kind.SUFFIX, function, null, false, arg);
     }
 
     /**
      * Joins a left and right expression with an operator e.g. 'a + b'
      */
     public static Expression applyOperator(String operator, BuildCapable... expressions) {
-        return new Expression(join(String.format(" %s ", operator), buildAll(expressions)));
+        return new Expression(Kind.OPERATOR, operator, null, false, expressions.clone());
     }
 
     /**
      * Constructs a function with a list of arguments e.g. function(a,b,c)
      */
     public static Expression function(String function, BuildCapable... args) {
-        return new Expression(String.format("%s(%s)", function, join(", ", buildAll(args))));
+        return new Expression(Kind.FUNCTION, function, null, false, args.clone());
     }
 
     /**
@@ -368,6 +480,20 @@ public class Expression implements BuildCapable {
         return subtract(asExpression(left), asExpression(right));
     }
 
+    /**
+     * Joins a left and right expression with a modulo operator e.g. 'a % b'
+     */
+    public static Expression modulo(BuildCapable left, BuildCapable right) {
+        return applyOperator("%", left, right);
+    }
+
+    /**
+     * Joins a left and right expression with a modulo operator e.g. 'a % b'
+     */
+    public static Expression modulo(String left, String right) {
+        return modulo(asExpression(left), asExpression(right));
+    }
+
     /**
      * Wraps an expression with an to_string function that would evaluate as a string cast in the server e.g. 'to_string(a)'
      */
@@ -527,7 +653,7 @@ public class Expression implements BuildCapable {
      * Wraps an expression as an alias that can be further used in the query for other things such as aggregated calculation e.g. 'a as aliasOfA'
      */
     public static Expression as(BuildCapable expression, String alias) {
-        return applyOperator("as", expression, simpleExpression(alias));
+        return applyOperator("as", expression, column(alias));
     }
 
     /**
@@ -541,14 +667,81 @@ public class Expression implements BuildCapable {
      * Represents a column in a clause e.g. 'a'
      */
     public static Expression column(String name) {
-        return simpleExpression(name);
+        return new Expression(Kind.COLUMN, name, null, false);
     }
 
     /**
-     * Single quotes an expression for literal comparison eg. " a = 'something'  "
+     * A quoted string literal with its single quotes escaped e.g. 'O''Brien'
+     */
+    public static Expression literal(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2);
+        LiteralUtils.appendString(builder, value);
+        return literal(builder.toString(), value);
+    }
+
+    /**
+     * An integer number literal e.g. 42
+     */
+    public static Expression literal(long value) {
+        return literal(String.valueOf(value), value);
+    }
+
+    /**
+     * A decimal number literal rendered without exponent nor locale specific separators e.g. 0.000125
+     *
+     * @throws IllegalArgumentException if the number is NaN or infinite
+     */
+    public static Expression literal(double value) {
+        StringBuilder builder = new StringBuilder();
+        LiteralUtils.appendNumber(builder, value);
+        return literal(builder.toString(), value);
+    }
+
+    /**
+     * A boolean literal e.g. true
+     */
+    public static Expression literal(boolean value) {
+        return literal(String.valueOf(value), value);
+    }
+
+    /**
+     * A floating timestamp literal in the default time zone e.g. '2013-06-01T12:30:00.000'
+     */
+    public static Expression literal(Date value) {
+        StringBuilder builder = new StringBuilder(25);
+        LiteralUtils.appendDate(builder, value);
+        return literal(builder.toString(), value);
+    }
+
+    /**
+     * The coordinates of a bounding box as used by within_box e.g. 47.8, -122.2, 47.4, -122.5
+     */
+    public static Expression literal(GeoBox value) {
+        return literal(value.build(), value);
+    }
+
+    /**
+     * Private helper that constructs a literal node out of its rendered text and value
+     */
+    private static Expression literal(String text, Object value) {
+        return new Expression(Kind.LITERAL, text, value, false);
+    }
+
+    /**
+     * A typed placeholder bound on a prepared query e.g. gt("time", param("since", Date.class))
+     *
+     * @see com.socrata.android.soql.PreparedQuery
+     */
+    public static Parameter param(String name, Class<?> type) {
+        return new Parameter(name, type);
+    }
+
+    /**
+     * Single quotes an expression for literal comparison eg. " a = 'something'  ". Quotes in the expression are not
+     * escaped, use {@link #literal(String)} for values
      */
     public static Expression quoted(BuildCapable expression) {
-        return simpleExpression(String.format("'%s'", expression.build()));
+        return new Expression(Kind.QUOTED, null, null, false, expression);
     }
 
     /**
@@ -562,7 +755,7 @@ public class Expression implements BuildCapable {
      * Adds order direction to an aexpression e.g. 'a desc'
      */
     public static Expression order(BuildCapable expression, OrderDirection direction) {
-        return simpleExpression(String.format("%s %s", expression.build(), direction.name().toLowerCase()));
+        return suffixedFunction(direction.name().toLowerCase(), expression);
     }
 
     /**
@@ -576,7 +769,7 @@ public class Expression implements BuildCapable {
      * Wraps an array of expressions in parentheses e.g. '(a)'
      */
     public static Expression parentheses(BuildCapable... expressions) {
-        return simpleExpression(String.format("(%s)", buildAll(expressions)));
+        return new Expression(Kind.PARENTHESES, null, null, false, expressions.clone());
     }
 
     /**
@@ -590,7 +783,7 @@ public class Expression implements BuildCapable {
      * Wraps an expression with a within_box function to look up withinBox based properties in bounding box represented by ne and sw coordinates
      */
     public static Expression withinBox(BuildCapable location, GeoBox geoBox) {
-        return function("within_box", location, simpleExpression(geoBox.build()));
+        return function("within_box", location, geoBox);
     }
 
     /**
@@ -601,15 +794,104 @@ public class Expression implements BuildCapable {
     }
 
     /**
+     * Wraps an expression with a within_box function whose bounding box is an expression, e.g. a GeoBox parameter
+     */
+    public static Expression withinBox(BuildCapable location, BuildCapable geoBox) {
+        return function("within_box", location, geoBox);
+    }
+
+    /**
+     * Renders this expression on first build reusing the result afterwards
+     *
      * @see com.socrata.android.soql.clauses.BuildCapable#build()
      */
     @Override
     public String build() {
-        return isRequiresWrap() && value != null ? parentheses(simpleExpression(value)).build() : value;
+        String result = rendered;
+        if (result == null && name == null && kind == Kind.RAW) {
+            return null;
+        }
+        if (result == null) {
+            StringBuilder builder = new StringBuilder();
+            renderWrapped(builder);
+            result = builder.toString();
+            rendered = result;
+        }
+        return result;
+    }
+
+    /**
+     * Appends the rendering of this expression if it was already built, otherwise renders the expression and its
+     * subtrees straight into the builder without keeping their rendering
+     *
+     * @see com.socrata.android.soql.clauses.BuildCapable#appendTo(StringBuilder)
+     */
+    @Override
+    public void appendTo(StringBuilder builder) {
+        String result = rendered;
+        if (result != null || (name == null && kind == Kind.RAW)) {
+            builder.append(result);
+        } else {
+            renderWrapped(builder);
+        }
+    }
+
+    /**
+     * Private helper that renders this node with its wrapping parentheses if it requires them
+     */
+    private void renderWrapped(StringBuilder builder) {
+        if (requiresWrap) {
+            builder.append('(');
+            render(builder);
+            builder.append(')');
+        } else {
+            render(builder);
+        }
+    }
+
+    /**
+     * Private helper that renders this node without its wrapping parentheses
+     */
+    private void render(StringBuilder builder) {
+        switch (kind) {
+            case OPERATOR:
+                for (int i = 0; i < operands.length; i++) {
+                    if (i > 0) {
+                        builder.append(' ').append(name).append(' ');
+                    }
+                    operands[i].appendTo(builder);
+                }
+                break;
+            case FUNCTION:
+                builder.append(name).append('(');
+                appendAll(builder, ", ", operands);
+                builder.append(')');
+                break;
+            case PREFIX:
+                builder.append(name).append(' ');
+                operands[0].appendTo(builder);
+                break;
+            case SUFFIX:
+                operands[0].appendTo(builder);
+                builder.append(' ').append(name);
+                break;
+            case PARENTHESES:
+                builder.append('(');
+                appendAll(builder, ", ", operands);
+                builder.append(')');
+                break;
+            case QUOTED:
+                builder.append('\'');
+                operands[0].appendTo(builder);
+                builder.append('\'');
+                break;
+            default:
+                builder.append(name);
+        }
     }
 
     @Override
     public String toString() {
-        return String.format("Expression: %s", build());
+        return "Expression: " + build();
     }
-}
\ No newline at end of file
+}
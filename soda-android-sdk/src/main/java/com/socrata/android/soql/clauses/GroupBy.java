@@ -12,19 +12,18 @@
 
 package com.socrata.android.soql.clauses;
 
-import com.socrata.android.soql.utils.BuildUtils;
-
 /**
  * A group by clause e.g. group a,b,c
  */
 public class GroupBy extends ImmutableClause {
 
     /**
-     * @see com.socrata.android.soql.clauses.BuildCapable#build()
+     * @see com.socrata.android.soql.clauses.BuildCapable#appendTo(StringBuilder)
      */
     @Override
-    public String build() {
-        BuildCapable[] expressions = getExpressions();
-        return expressions.length == 0 ? "" : String.format("group by %s", BuildUtils.join(", ", BuildUtils.buildAll(expressions)));
+    public void appendTo(StringBuilder builder) {
+        if (!expressions.isEmpty()) {
+            appendExpressions(builder, "group by ", ", ");
+        }
     }
 }
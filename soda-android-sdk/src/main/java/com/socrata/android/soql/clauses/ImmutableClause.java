@@ -12,6 +12,8 @@
 
 package com.socrata.android.soql.clauses;
 
+import com.socrata.android.soql.utils.BuildUtils;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -35,6 +37,38 @@ public abstract class ImmutableClause implements BuildCapable {
         return expressions.toArray(new BuildCapable[expressions.size()]);
     }
 
+    /**
+     * @return whether this clause has no expressions
+     */
+    public boolean isEmpty() {
+        return expressions.isEmpty();
+    }
+
+    /**
+     * @see com.socrata.android.soql.clauses.BuildCapable#build()
+     */
+    @Override
+    public String build() {
+        return BuildUtils.build(this);
+    }
+
+    /**
+     * Appends the expressions of this clause after a keyword, e.g. 'order by a, b'
+     *
+     * @param builder   the builder
+     * @param keyword   the clause keyword followed by a space
+     * @param separator the separator of the expressions
+     */
+    protected void appendExpressions(StringBuilder builder, String keyword, String separator) {
+        builder.append(keyword);
+        for (int i = 0; i < expressions.size(); i++) {
+            if (i > 0) {
+                builder.append(separator);
+            }
+            expressions.get(i).appendTo(builder);
+        }
+    }
+
     /**
      * Immutable builder that returns a new clause of the same type with the appended expressions
      *
@@ -45,9 +79,9 @@ public abstract class ImmutableClause implements BuildCapable {
     @SuppressWarnings("unchecked")
     public <T extends ImmutableClause> T append(final BuildCapable... expressions) {
         try {
-            List<BuildCapable> appendedList = new ArrayList<BuildCapable>() {{
-                addAll(Arrays.asList(expressions));
-            }};
+            List<BuildCapable> appendedList = new ArrayList<BuildCapable>(this.expressions.size() + expressions.length);
+            appendedList.addAll(this.expressions);
+            appendedList.addAll(Arrays.asList(expressions));
             T clause = (T) getClass().newInstance();
             clause.expressions = Collections.unmodifiableList(appendedList);
             return clause;
@@ -12,6 +12,8 @@
 
 package com.socrata.android.soql.clauses;
 
+import com.socrata.android.soql.utils.BuildUtils;
+
 /**
  * A limit x clause that limits the results returned by the API
  */
@@ -43,6 +45,16 @@ public class Limit implements BuildCapable {
      */
     @Override
     public String build() {
-        return getLimit() == null ? "" : String.format("limit %d", getLimit());
+        return getLimit() == null ? "" : BuildUtils.build(this);
+    }
+
+    /**
+     * @see com.socrata.android.soql.clauses.BuildCapable#appendTo(StringBuilder)
+     */
+    @Override
+    public void appendTo(StringBuilder builder) {
+        if (getLimit() != null) {
+            builder.append("limit ").append(getLimit().intValue());
+        }
     }
 }
@@ -12,6 +12,8 @@
 
 package com.socrata.android.soql.clauses;
 
+import com.socrata.android.soql.utils.BuildUtils;
+
 /**
  * An offset x clause to offset the start record for the returning results for pagination purposes
  */
@@ -41,6 +43,16 @@ public class Offset implements BuildCapable {
      */
     @Override
     public String build() {
-        return offset == null ? "" : String.format("offset %d", getOffset());
+        return getOffset() == null ? "" : BuildUtils.build(this);
+    }
+
+    /**
+     * @see com.socrata.android.soql.clauses.BuildCapable#appendTo(StringBuilder)
+     */
+    @Override
+    public void appendTo(StringBuilder builder) {
+        if (getOffset() != null) {
+            builder.append("offset ").append(getOffset().intValue());
+        }
     }
 }
@@ -12,19 +12,18 @@
 
 package com.socrata.android.soql.clauses;
 
-import com.socrata.android.soql.utils.BuildUtils;
-
 /**
  * An order by clause e.g. order a, b, c
  */
 public class OrderBy extends ImmutableClause {
 
     /**
-     * @see com.socrata.android.soql.clauses.BuildCapable#build()
+     * @see com.socrata.android.soql.clauses.BuildCapable#appendTo(StringBuilder)
      */
     @Override
-    public String build() {
-        BuildCapable[] expressions = getExpressions();
-        return expressions.length == 0 ? "" : String.format("order by %s", BuildUtils.join(", ", BuildUtils.buildAll(expressions)));
+    public void appendTo(StringBuilder builder) {
+        if (!expressions.isEmpty()) {
+            appendExpressions(builder, "order by ", ", ");
+        }
     }
 }
@@ -0,0 +1,91 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.soql.clauses;
+
+import com.socrata.android.soql.utils.BuildUtils;
+
+/**
+ * A typed placeholder for a value bound later on a {@link com.socrata.android.soql.PreparedQuery}, e.g.
+ * gt("time", param("since", Date.class)). Queries with parameters must be prepared, they render
+ * the placeholder as a marker that is not valid SoQL.
+ */
+public class Parameter implements BuildCapable {
+
+    /**
+     * Delimits placeholders in rendered queries, a character that can not appear in SoQL.
+     * Placeholders are rendered as marker, name, marker, type name, marker
+     */
+    public static final char MARKER = '\u0000';
+
+    /**
+     * The parameter name
+     */
+    private final String name;
+
+    /**
+     * The type of the values bound to this parameter
+     */
+    private final Class<?> type;
+
+    /**
+     * Constructs a parameter
+     *
+     * @param name the parameter name
+     * @param type the type of the values bound to this parameter
+     */
+    public Parameter(String name, Class<?> type) {
+        if (name == null || name.indexOf(MARKER) >= 0) {
+            throw new IllegalArgumentException("Invalid parameter name");
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("Parameter type is required");
+        }
+        this.name = name;
+        this.type = type;
+    }
+
+    /**
+     * @return the parameter name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the type of the values bound to this parameter
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @see com.socrata.android.soql.clauses.BuildCapable#build()
+     */
+    @Override
+    public String build() {
+        return BuildUtils.build(this);
+    }
+
+    /**
+     * @see com.socrata.android.soql.clauses.BuildCapable#appendTo(StringBuilder)
+     */
+    @Override
+    public void appendTo(StringBuilder builder) {
+        builder.append(MARKER).append(name).append(MARKER).append(type.getName()).append(MARKER);
+    }
+
+    @Override
+    public String toString() {
+        return "Parameter: " + name;
+    }
+}
@@ -12,19 +12,20 @@
 
 package com.socrata.android.soql.clauses;
 
-import com.socrata.android.soql.utils.BuildUtils;
-
 /**
  * A select clause e.g. select a, b, c.
  */
 public class Select extends ImmutableClause {
 
     /**
-     * @see com.socrata.android.soql.clauses.BuildCapable#build()
+     * @see com.socrata.android.soql.clauses.BuildCapable#appendTo(StringBuilder)
      */
     @Override
-    public String build() {
-        BuildCapable[] expressions = getExpressions();
-        return expressions.length == 0 ? "select *" : String.format("select %s", BuildUtils.join(", ", BuildUtils.buildAll(expressions)));
+    public void appendTo(StringBuilder builder) {
+        if (expressions.isEmpty()) {
+            builder.append("select *");
+        } else {
+            appendExpressions(builder, "select ", ", ");
+        }
     }
 }
@@ -12,22 +12,27 @@
 
 package com.socrata.android.soql.clauses;
 
-import com.socrata.android.soql.utils.BuildUtils;
-
-import static com.socrata.android.soql.clauses.Expression.and;
-import static com.socrata.android.soql.utils.BuildUtils.buildAll;
-
 /**
  * A where clause e.g. (expression and expression).
  */
 public class Where extends ImmutableClause {
 
     /**
-     * @see com.socrata.android.soql.clauses.BuildCapable#build()
+     * @see com.socrata.android.soql.clauses.BuildCapable#appendTo(StringBuilder)
      */
     @Override
-    public String build() {
-        BuildCapable[] expressions = getExpressions();
-        return expressions.length == 0 ? "" : String.format("where %s", BuildUtils.join(" ", buildAll(and(expressions))));
+    public void appendTo(StringBuilder builder) {
+        if (!expressions.isEmpty()) {
+            appendExpressions(builder, "where ", " and ");
+        }
+    }
+
+    /**
+     * Appends the expressions of this clause joined with 'and' without the where keyword
+     *
+     * @param builder the builder
+     */
+    public void appendConditions(StringBuilder builder) {
+        appendExpressions(builder, "", " and ");
     }
 }
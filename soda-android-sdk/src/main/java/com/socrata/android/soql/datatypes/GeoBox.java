@@ -54,6 +54,11 @@ public class GeoBox implements BuildCapable {
 
     @Override
     public String build() {
-        return BuildUtils.join(", ", getNorth(), getEast(), getSouth(), getWest());
+        return BuildUtils.build(this);
+    }
+
+    @Override
+    public void appendTo(StringBuilder builder) {
+        builder.append(getNorth()).append(", ").append(getEast()).append(", ").append(getSouth()).append(", ").append(getWest());
     }
 }
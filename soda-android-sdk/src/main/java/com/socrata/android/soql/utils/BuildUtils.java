@@ -12,7 +12,6 @@
 
 package com.socrata.android.soql.utils;
 
-import android.text.TextUtils;
 import com.socrata.android.soql.clauses.BuildCapable;
 
 import static com.socrata.android.soql.clauses.Expression.simpleExpression;
@@ -36,7 +35,62 @@ public class BuildUtils {
      * @return the joined string
      */
     public static String join(CharSequence separator, Object... args) {
-        return TextUtils.join(separator, args);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                builder.append(separator);
+            }
+            builder.append(args[i]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Appends {@link BuildCapable} objects to a builder separated by a separator
+     *
+     * @param builder      the builder
+     * @param separator    the separator
+     * @param buildCapable the build capable objects
+     */
+    public static void appendAll(StringBuilder builder, CharSequence separator, BuildCapable... buildCapable) {
+        for (int i = 0; i < buildCapable.length; i++) {
+            if (i > 0) {
+                builder.append(separator);
+            }
+            buildCapable[i].appendTo(builder);
+        }
+    }
+
+    /**
+     * Appends a query clause to a builder separated by a space from the clauses appended after a start position.
+     * Clauses rendering to nothing, e.g. a where clause without expressions, leave the builder untouched
+     *
+     * @param builder the builder
+     * @param start   the position where the first clause of the query is appended
+     * @param clause  the clause
+     */
+    public static void appendClause(StringBuilder builder, int start, BuildCapable clause) {
+        int length = builder.length();
+        if (length > start) {
+            builder.append(' ');
+        }
+        int clauseStart = builder.length();
+        clause.appendTo(builder);
+        if (builder.length() == clauseStart) {
+            builder.setLength(length);
+        }
+    }
+
+    /**
+     * Builds a {@link BuildCapable} object into its string representation through its append implementation
+     *
+     * @param buildCapable the build capable object
+     * @return the built expression
+     */
+    public static String build(BuildCapable buildCapable) {
+        StringBuilder builder = new StringBuilder();
+        buildCapable.appendTo(builder);
+        return builder.toString();
     }
 
     /**
@@ -0,0 +1,274 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.soql.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Canonical forms of SoQL queries so equivalent queries share cache entries and in flight requests.
+ * The where condition is normalized, operands of 'and' and 'or' are flattened, deduplicated and sorted and
+ * redundant parentheses dropped, following SoQL precedence so the canonical form is equivalent to the query.
+ * Conditions using 'between' are left in their original order.
+ */
+public class CanonicalUtils {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final String WHERE = " where ";
+
+    private static final String AND = " and ";
+
+    private static final String OR = " or ";
+
+    private static final String BETWEEN = " between ";
+
+    /**
+     * Keywords of the clauses that may follow a where clause
+     */
+    private static final String[] CLAUSES_AFTER_WHERE = {" group by ", " having ", " order by ", " offset ", " limit ", " search "};
+
+    /**
+     * Prevents instantiation
+     */
+    private CanonicalUtils() {
+    }
+
+    /**
+     * Computes the canonical form of a SoQL query
+     *
+     * @param query the query
+     * @return the canonical form, equivalent to the query
+     */
+    public static String canonicalize(String query) {
+        String normalized = normalizeWhitespace(query);
+        if (indexOfTopLevel(normalized, "|>", 0) >= 0) {
+            return normalized;
+        }
+        int where = indexOfTopLevel(normalized, WHERE, 0);
+        if (where < 0) {
+            return normalized;
+        }
+        int start = where + WHERE.length();
+        int end = normalized.length();
+        for (String clause : CLAUSES_AFTER_WHERE) {
+            int index = indexOfTopLevel(normalized, clause, start);
+            if (index >= 0 && index < end) {
+                end = index;
+            }
+        }
+        return normalized.substring(0, start) + canonicalizeCondition(normalized.substring(start, end)) + normalized.substring(end);
+    }
+
+    /**
+     * Computes the canonical form of a SoQL boolean condition
+     *
+     * @param condition the condition
+     * @return the canonical form, equivalent to the condition
+     */
+    public static String canonicalizeCondition(String condition) {
+        String unwrapped = unwrap(normalizeWhitespace(condition));
+        if (indexOfTopLevel(unwrapped, BETWEEN, 0) >= 0) {
+            return unwrapped;
+        }
+        Set<String> disjuncts = new TreeSet<String>();
+        collectDisjuncts(unwrapped, disjuncts);
+        return join(disjuncts, OR);
+    }
+
+    /**
+     * Computes the 64 bit FNV-1a hash of a text, e.g. a canonical query
+     *
+     * @param text the text
+     * @return the fingerprint
+     */
+    public static long fingerprint(CharSequence text) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            hash ^= c & 0xff;
+            hash *= FNV_PRIME;
+            hash ^= c >>> 8;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Trims a query and collapses whitespace runs outside quoted literals to a single space
+     *
+     * @param query the query
+     * @return the normalized query, empty for null
+     */
+    public static String normalizeWhitespace(String query) {
+        if (query == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(query.length());
+        boolean quoted = false;
+        boolean space = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (!quoted && Character.isWhitespace(c)) {
+                space = normalized.length() > 0;
+                continue;
+            }
+            if (space) {
+                normalized.append(' ');
+                space = false;
+            }
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Private helper that adds the canonical operands of an 'or' chain flattening nested chains
+     */
+    private static void collectDisjuncts(String condition, Set<String> disjuncts) {
+        List<String> operands = splitTopLevel(condition, OR);
+        if (operands.size() == 1) {
+            disjuncts.add(canonicalizeConjunction(condition));
+            return;
+        }
+        for (String operand : operands) {
+            String unwrapped = unwrap(operand);
+            if (unwrapped != operand && indexOfTopLevel(unwrapped, OR, 0) >= 0 && indexOfTopLevel(unwrapped, BETWEEN, 0) < 0) {
+                collectDisjuncts(unwrapped, disjuncts);
+            } else {
+                disjuncts.add(canonicalizeConjunction(operand));
+            }
+        }
+    }
+
+    /**
+     * Private helper that computes the canonical form of a condition without a top level 'or'
+     */
+    private static String canonicalizeConjunction(String condition) {
+        if (indexOfTopLevel(condition, BETWEEN, 0) >= 0) {
+            return condition;
+        }
+        Set<String> conjuncts = new TreeSet<String>();
+        collectConjuncts(condition, conjuncts);
+        return join(conjuncts, AND);
+    }
+
+    /**
+     * Private helper that adds the canonical operands of an 'and' chain flattening nested chains. Operands that are
+     * 'or' chains keep their parentheses
+     */
+    private static void collectConjuncts(String condition, Set<String> conjuncts) {
+        for (String operand : splitTopLevel(condition, AND)) {
+            String unwrapped = unwrap(operand);
+            if (unwrapped == operand) {
+                conjuncts.add(operand);
+                continue;
+            }
+            String canonical = canonicalizeCondition(unwrapped);
+            if (indexOfTopLevel(canonical, OR, 0) >= 0 || indexOfTopLevel(canonical, BETWEEN, 0) >= 0) {
+                conjuncts.add("(" + canonical + ")");
+            } else {
+                collectConjuncts(canonical, conjuncts);
+            }
+        }
+    }
+
+    /**
+     * Private helper that drops the parentheses enclosing a whole expression, returning the same instance if there
+     * are none
+     */
+    private static String unwrap(String expression) {
+        String unwrapped = expression;
+        while (unwrapped.length() > 1 && unwrapped.charAt(0) == '(' && closingParenthesis(unwrapped) == unwrapped.length() - 1) {
+            unwrapped = unwrapped.substring(1, unwrapped.length() - 1).trim();
+        }
+        return unwrapped;
+    }
+
+    /**
+     * Private helper that finds the parenthesis closing the one opening an expression or -1
+     */
+    private static int closingParenthesis(String expression) {
+        int depth = 0;
+        boolean quoted = false;
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && c == '(') {
+                depth++;
+            } else if (!quoted && c == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Private helper that splits an expression on a keyword found outside parentheses and quoted literals
+     */
+    private static List<String> splitTopLevel(String expression, String keyword) {
+        List<String> parts = new ArrayList<String>();
+        int start = 0;
+        int index;
+        while ((index = indexOfTopLevel(expression, keyword, start)) >= 0) {
+            parts.add(expression.substring(start, index));
+            start = index + keyword.length();
+        }
+        parts.add(expression.substring(start));
+        return parts;
+    }
+
+    /**
+     * Private helper that finds a keyword, ignoring case, outside parentheses and quoted literals or -1
+     */
+    private static int indexOfTopLevel(String expression, String keyword, int from) {
+        int depth = 0;
+        boolean quoted = false;
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && c == '(') {
+                depth++;
+            } else if (!quoted && c == ')') {
+                depth--;
+            } else if (!quoted && depth == 0 && i >= from && expression.regionMatches(true, i, keyword, 0, keyword.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Private helper that joins sorted operands with a keyword
+     */
+    private static String join(Set<String> operands, String keyword) {
+        StringBuilder builder = new StringBuilder();
+        for (String operand : operands) {
+            if (builder.length() > 0) {
+                builder.append(keyword);
+            }
+            builder.append(operand);
+        }
+        return builder.toString();
+    }
+
+}
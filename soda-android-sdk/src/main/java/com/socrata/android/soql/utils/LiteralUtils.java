@@ -0,0 +1,162 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.soql.utils;
+
+import com.socrata.android.soql.clauses.BuildCapable;
+
+import java.math.BigDecimal;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Renders values as SoQL literals. Strings are quoted doubling single quotes, numbers are rendered without
+ * exponent nor locale specific separators and dates as floating timestamps e.g. '2013-06-01T12:30:00.000'.
+ * Values are appended straight to a builder without String.format or per call formatters
+ */
+public class LiteralUtils {
+
+    /**
+     * Calendars reused to split dates into their fields, one per thread as calendars are not thread safe.
+     * Their time zone is reset to the default one on every use as it may change while the app runs
+     */
+    private static final ThreadLocal<Calendar> calendars = new ThreadLocal<Calendar>() {
+        @Override
+        protected Calendar initialValue() {
+            return Calendar.getInstance();
+        }
+    };
+
+    /**
+     * Prevents instantiation
+     */
+    private LiteralUtils() {
+    }
+
+    /**
+     * Renders a value as a SoQL literal
+     *
+     * @param value the value
+     * @return the literal
+     * @see #appendLiteral(StringBuilder, Object)
+     */
+    public static String toLiteral(Object value) {
+        StringBuilder builder = new StringBuilder();
+        appendLiteral(builder, value);
+        return builder.toString();
+    }
+
+    /**
+     * Appends a value as a SoQL literal. Numbers and booleans are rendered unquoted, dates as floating timestamps,
+     * expressions such as a GeoBox as they build, null as null and any other value as a quoted string
+     *
+     * @param builder the builder
+     * @param value   the value
+     */
+    public static void appendLiteral(StringBuilder builder, Object value) {
+        if (value == null) {
+            builder.append("null");
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            builder.append(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            appendNumber(builder, ((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal) {
+            builder.append(((BigDecimal) value).toPlainString());
+        } else if (value instanceof Number || value instanceof Boolean) {
+            builder.append(value.toString());
+        } else if (value instanceof Date) {
+            appendDate(builder, (Date) value);
+        } else if (value instanceof BuildCapable) {
+            ((BuildCapable) value).appendTo(builder);
+        } else {
+            appendString(builder, value.toString());
+        }
+    }
+
+    /**
+     * Appends a quoted string literal doubling its single quotes
+     *
+     * @param builder the builder
+     * @param value   the string
+     */
+    public static void appendString(StringBuilder builder, String value) {
+        builder.append('\'');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\'') {
+                builder.append('\'');
+            }
+            builder.append(c);
+        }
+        builder.append('\'');
+    }
+
+    /**
+     * Appends a number literal with a dot as decimal separator and without exponent
+     *
+     * @param builder the builder
+     * @param value   the number
+     * @throws IllegalArgumentException if the number is NaN or infinite, which have no SoQL literal
+     */
+    public static void appendNumber(StringBuilder builder, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException(String.format("%s has no SoQL literal", value));
+        }
+        double magnitude = Math.abs(value);
+        if (magnitude == 0 || (magnitude >= 1e-3 && magnitude < 1e7)) {
+            builder.append(value);
+        } else {
+            builder.append(BigDecimal.valueOf(value).toPlainString());
+        }
+    }
+
+    /**
+     * Appends a floating timestamp literal of a date in the default time zone e.g. '2013-06-01T12:30:00.000'
+     *
+     * @param builder the builder
+     * @param value   the date
+     */
+    public static void appendDate(StringBuilder builder, Date value) {
+        Calendar calendar = calendars.get();
+        calendar.setTimeZone(TimeZone.getDefault());
+        calendar.setTime(value);
+        builder.append('\'');
+        appendPadded(builder, calendar.get(Calendar.YEAR), 4);
+        builder.append('-');
+        appendPadded(builder, calendar.get(Calendar.MONTH) + 1, 2);
+        builder.append('-');
+        appendPadded(builder, calendar.get(Calendar.DAY_OF_MONTH), 2);
+        builder.append('T');
+        appendPadded(builder, calendar.get(Calendar.HOUR_OF_DAY), 2);
+        builder.append(':');
+        appendPadded(builder, calendar.get(Calendar.MINUTE), 2);
+        builder.append(':');
+        appendPadded(builder, calendar.get(Calendar.SECOND), 2);
+        builder.append('.');
+        appendPadded(builder, calendar.get(Calendar.MILLISECOND), 3);
+        builder.append('\'');
+    }
+
+    /**
+     * Private helper that appends a positive number left padded with zeros
+     */
+    private static void appendPadded(StringBuilder builder, int value, int digits) {
+        for (int limit = 10, i = 1; i < digits; i++, limit *= 10) {
+            if (value < limit) {
+                builder.append('0');
+            }
+        }
+        builder.append(value);
+    }
+
+}
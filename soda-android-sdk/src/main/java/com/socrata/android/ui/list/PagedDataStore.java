@@ -0,0 +1,201 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.ui.list;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rows of a query held as fixed size pages. When a window is set only that many pages around the last accessed
+ * position are kept in memory, the pages farthest from it are dropped as new ones are stored and have to be
+ * loaded again if the user scrolls back to them. The count of rows is kept regardless of the pages dropped.
+ *
+ * @param <Data> the type of row
+ */
+public class PagedDataStore<Data> {
+
+    /**
+     * Rows per page
+     */
+    private final int pageSize;
+
+    /**
+     * Max pages kept in memory, 0 keeps every page
+     */
+    private int window;
+
+    /**
+     * The pages in memory by page index
+     */
+    private final Map<Integer, List<Data>> pages = new HashMap<Integer, List<Data>>();
+
+    /**
+     * The page of the last accessed position
+     */
+    private int currentPage;
+
+    /**
+     * Number of rows known to exist out of the pages stored so far
+     */
+    private int extent;
+
+    /**
+     * Index of the first short page or -1 while it is unknown
+     */
+    private int lastPage = -1;
+
+    /**
+     * Total number of rows when known beforehand or -1
+     */
+    private int total = -1;
+
+    /**
+     * Constructs a paged store
+     *
+     * @param pageSize rows per page
+     * @param window   max pages kept in memory, 0 keeps every page
+     */
+    public PagedDataStore(int pageSize, int window) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        this.pageSize = pageSize;
+        this.window = window;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @param position a row position
+     * @return the index of the page holding a row
+     */
+    public int getPage(int position) {
+        return position / pageSize;
+    }
+
+    /**
+     * @return the total number of rows if known, otherwise the number of rows up to the end of the farthest page
+     * stored so far
+     */
+    public int getCount() {
+        return total >= 0 ? total : extent;
+    }
+
+    /**
+     * @return the number of rows up to the end of the farthest page stored so far
+     */
+    public int getLoadedCount() {
+        return extent;
+    }
+
+    /**
+     * Sets the total number of rows known beforehand, e.g. out of a count query, so the count covers rows
+     * whose pages have not been loaded yet
+     *
+     * @param total the total number of rows or -1 if unknown
+     */
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    /**
+     * @return the index of the next page after the farthest page stored so far
+     */
+    public int getNextPage() {
+        return (extent + pageSize - 1) / pageSize;
+    }
+
+    /**
+     * @return whether the last page has been stored or every row of the known total is covered by stored pages
+     */
+    public boolean isComplete() {
+        return lastPage >= 0 || (total >= 0 && extent >= total);
+    }
+
+    /**
+     * Gets a row recording its page as the current one
+     *
+     * @param position the row position
+     * @return the row or null if its page is not in memory
+     */
+    public Data get(int position) {
+        int page = getPage(position);
+        currentPage = page;
+        List<Data> rows = pages.get(page);
+        int index = position - page * pageSize;
+        return rows != null && index < rows.size() ? rows.get(index) : null;
+    }
+
+    /**
+     * @param page the page index
+     * @return whether the page is in memory
+     */
+    public boolean contains(int page) {
+        return pages.containsKey(page);
+    }
+
+    /**
+     * Stores a page dropping the pages farthest from the current one if the window is exceeded
+     *
+     * @param page the page index
+     * @param rows the page rows, a page shorter than the page size is the last one
+     */
+    public void put(int page, List<Data> rows) {
+        pages.put(page, rows);
+        extent = Math.max(extent, page * pageSize + rows.size());
+        if (rows.size() < pageSize && (lastPage < 0 || page < lastPage)) {
+            lastPage = page;
+            extent = page * pageSize + rows.size();
+        }
+        while (window > 0 && pages.size() > window) {
+            int farthest = page;
+            for (Integer stored : pages.keySet()) {
+                if (Math.abs(stored - currentPage) > Math.abs(farthest - currentPage)) {
+                    farthest = stored;
+                }
+            }
+            pages.remove(farthest);
+        }
+    }
+
+    /**
+     * @return the number of pages in memory
+     */
+    public int getPagesInMemory() {
+        return pages.size();
+    }
+
+    /**
+     * Sets the max pages kept in memory, applied as new pages are stored
+     *
+     * @param window the max pages, 0 keeps every page
+     */
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    /**
+     * Drops every page and forgets the count of rows
+     */
+    public void clear() {
+        pages.clear();
+        currentPage = 0;
+        extent = 0;
+        lastPage = -1;
+        total = -1;
+    }
+
+}
@@ -22,12 +22,19 @@ import android.widget.Toast;
 
 import com.socrata.android.client.Callback;
 import com.socrata.android.client.Consumer;
+import com.socrata.android.client.JsonAdapter;
+import com.socrata.android.client.RequestHandle;
+import com.socrata.android.client.RequestScope;
 import com.socrata.android.client.Response;
 import com.socrata.android.client.ResponseError;
 import com.socrata.android.soql.Query;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Base adapter for Soda Enabled List with built in querying capabilities
@@ -69,9 +76,24 @@ public class SodaBaseAdapter<Holder extends BindableView<Data>, Data> extends Ba
     }
 
     /**
-     * A list of model entities being rendered in this adapter
+     * The pages of model entities being rendered in this adapter
      */
-    private List<Data> data = new ArrayList<Data>();
+    private PagedDataStore<Data> data;
+
+    /**
+     * Max pages kept in memory, 0 keeps every page
+     */
+    private int pageWindow;
+
+    /**
+     * The keyset value each page seeks after, kept for pages dropped from memory so they can be loaded again
+     */
+    private final Map<Integer, Object> pageKeys = new HashMap<Integer, Object>();
+
+    /**
+     * Pages dropped from memory being loaded again
+     */
+    private final Set<Integer> reloading = new HashSet<Integer>();
 
     /**
      * layout id injected from the holder annotation
@@ -103,6 +125,41 @@ public class SodaBaseAdapter<Holder extends BindableView<Data>, Data> extends Ba
      */
     private Query query;
 
+    /**
+     * Reads the keyset column of the last row when the query pages with a keyset
+     */
+    private JsonAdapter<Data> keysetAdapter;
+
+    /**
+     * The requests issued by this adapter
+     */
+    private final RequestScope requests = new RequestScope();
+
+    /**
+     * Number of rows from the end of the loaded data at which the next page is prefetched, 0 disables prefetching
+     */
+    private int prefetchDistance;
+
+    /**
+     * Whether a request for the query or one of its pages is in flight
+     */
+    private boolean loading;
+
+    /**
+     * Whether the last page has been loaded
+     */
+    private boolean exhausted;
+
+    /**
+     * Whether the rows of each query are counted to size the list
+     */
+    private boolean counting;
+
+    /**
+     * The total number of rows of the query or -1 while unknown
+     */
+    private int total = -1;
+
     /**
      * Constructs a SodaBaseAdapter from an existing Context and holder type
      * The holder type will be pragmatically instantiated and inspected for SodaHolder annotations
@@ -152,52 +209,228 @@ public class SodaBaseAdapter<Holder extends BindableView<Data>, Data> extends Ba
     }
 
     /**
-     * Sets this adapter query use to filter server side results
+     * Sets this adapter query use to filter server side results, requests for the previous query are cancelled
      *
      * @param query the query
      */
+    @SuppressWarnings("unchecked")
     public void setQuery(Query query) {
         if (sodaAdapterListener != null) {
             sodaAdapterListener.onQueryStarted();
         }
         query.setOffset(0);
+        query.seekAfter(null);
         this.query = query;
-        consumer.getObjects(query, new Callback<List<Data>>() {
+        this.keysetAdapter = query.isKeyset() ? new JsonAdapter<Data>((Class<Data>) query.getMapping(), consumer.getDataTypesMapper()) : null;
+        requests.cancelAll();
+        data = null;
+        pageKeys.clear();
+        reloading.clear();
+        notifyDataSetChanged();
+        loading = true;
+        exhausted = false;
+        total = -1;
+        if (counting && query.getLimit() != null && query.getGroupBy().getExpressions().length == 0) {
+            requests.add(consumer.count(query, new Callback<Long>() {
+                @Override
+                public void onResults(Response<Long> response) {
+                    if (response.hasEntity()) {
+                        total = (int) Math.min(response.getEntity(), Integer.MAX_VALUE);
+                        if (data != null) {
+                            data.setTotal(total);
+                            exhausted = data.isComplete();
+                            notifyDataSetChanged();
+                        }
+                    }
+                }
+            }));
+        }
+        requests.add(consumer.getObjects(query, new Callback<List<Data>>() {
             @Override
             public void onResults(Response<List<Data>> response) {
+                loading = false;
                 if (response.hasError()) {
                     sodaAdapterListener.onQueryResponseError(response);
                 } else {
-                    data.clear();
-                    data.addAll(response.getEntity());
+                    data = new PagedDataStore<Data>(getPageSize(), pageWindow);
+                    data.setTotal(total);
+                    putPage(0, response.getEntity());
                     notifyDataSetChanged();
                     if (sodaAdapterListener != null) {
                         sodaAdapterListener.onQueryCompleted();
                     }
                 }
             }
-        });
+        }));
     }
 
     /**
      * Invoked upon pagination requests moving the query offset forward in order to progressively
-     * load more results from the Soda API
+     * load more results from the Soda API. Keyset paginated queries seek after the last loaded row instead,
+     * so the cost of each page does not grow with the number of rows already loaded.
+     * It has no effect while a page is already loading, before the query results arrive or once the last page is loaded
      */
     public void obtainMoreData() {
+        if (loading || data == null || exhausted) {
+            return;
+        }
+        loading = true;
         if (sodaAdapterListener != null) {
             sodaAdapterListener.onPaginatedQueryStarted();
         }
-        query.setOffset(getCount());
-        consumer.getObjects(query, new Callback<List<Data>>() {
+        final int page = data.getNextPage();
+        requests.add(requestPage(page, new Callback<List<Data>>() {
             @Override
             public void onResults(Response<List<Data>> response) {
-                data.addAll(response.getEntity());
+                loading = false;
+                if (response.hasError()) {
+                    if (sodaAdapterListener != null) {
+                        sodaAdapterListener.onPaginatedQueryCompleted();
+                        sodaAdapterListener.onQueryResponseError(response);
+                    }
+                    return;
+                }
+                putPage(page, response.getEntity());
                 notifyDataSetChanged();
                 if (sodaAdapterListener != null) {
                     sodaAdapterListener.onPaginatedQueryCompleted();
                 }
             }
-        });
+        }));
+    }
+
+    /**
+     * Private helper that loads the page of a row that is not in memory. Keyset paginated queries can only seek to
+     * pages following a loaded one, farther pages are reached loading the pages in between in order
+     */
+    private void loadMissingPage(int page) {
+        if (keysetAdapter != null && page > 0 && !pageKeys.containsKey(page)) {
+            obtainMoreData();
+        } else {
+            reloadPage(page);
+        }
+    }
+
+    /**
+     * Loads a page not in memory once one of its rows is displayed, either dropped from memory or beyond the
+     * loaded rows of a counted query. The response is usually served
+     * by the consumer cache when one is set. Errors are not reported, the page is requested again the next time
+     * one of its rows is displayed
+     */
+    private void reloadPage(final int page) {
+        if (!reloading.add(page)) {
+            return;
+        }
+        requests.add(requestPage(page, new Callback<List<Data>>() {
+            @Override
+            public void onResults(Response<List<Data>> response) {
+                reloading.remove(page);
+                if (!response.hasError()) {
+                    putPage(page, response.getEntity());
+                    notifyDataSetChanged();
+                }
+            }
+        }));
+    }
+
+    /**
+     * Private helper that requests a page of the query, seeking after the keyset value recorded for it or
+     * moving the offset to its first row
+     */
+    private RequestHandle requestPage(int page, Callback<List<Data>> callback) {
+        if (keysetAdapter != null) {
+            query.seekAfter(pageKeys.get(page));
+        } else {
+            query.setOffset(page * data.getPageSize());
+        }
+        return consumer.getObjects(query, callback);
+    }
+
+    /**
+     * Private helper that stores a page recording the keyset value the following page seeks after
+     */
+    private void putPage(int page, List<Data> rows) {
+        if (rows == null) {
+            rows = new ArrayList<Data>();
+        }
+        if (keysetAdapter != null && !rows.isEmpty()) {
+            pageKeys.put(page + 1, keysetAdapter.getValue(rows.get(rows.size() - 1), query.getKeysetColumn()));
+        }
+        data.put(page, rows);
+        exhausted = data.isComplete();
+    }
+
+    /**
+     * Private helper that returns the rows per page, the whole result set being a single page for queries without limit
+     */
+    private int getPageSize() {
+        return query.getLimit() == null || query.getLimit() <= 0 ? Integer.MAX_VALUE : query.getLimit();
+    }
+
+    /**
+     * @return whether the rows of each query are counted to size the list
+     */
+    public boolean isCounting() {
+        return counting;
+    }
+
+    /**
+     * Counts the rows of each paginated query with a separate 'select count(*)' request so the list is sized to the
+     * total number of rows upfront. Rows are then loaded as they are displayed and paging stops right after the
+     * last row instead of requesting a trailing empty page. Grouped queries are not counted.
+     * Takes effect on the next query
+     *
+     * @param counting whether rows are counted. Defaults to false
+     * @see Consumer#count(Query, Callback)
+     */
+    public void setCounting(boolean counting) {
+        this.counting = counting;
+    }
+
+    /**
+     * @return the max number of pages kept in memory
+     */
+    public int getPageWindow() {
+        return pageWindow;
+    }
+
+    /**
+     * Bounds the memory used by this adapter. Only that many pages around the displayed rows are kept in memory,
+     * farther pages are dropped as new ones load and are requested again when the user scrolls back to them.
+     * Rows of pages not in memory are displayed with an invisible view until their page loads.
+     * The window should hold more rows than fit on screen plus the prefetch distance, or pages are dropped while displayed.
+     * Takes effect on the next query
+     *
+     * @param pageWindow the max number of pages, 0 keeps every page. Defaults to 0
+     */
+    public void setPageWindow(int pageWindow) {
+        this.pageWindow = pageWindow;
+    }
+
+    /**
+     * @return the number of rows from the end of the loaded data at which the next page is prefetched
+     */
+    public int getPrefetchDistance() {
+        return prefetchDistance;
+    }
+
+    /**
+     * Enables infinite scrolling. Once a row closer than the prefetch distance to the end of the loaded data is
+     * displayed, the next page is requested in the background so it is usually loaded before the user reaches the
+     * end. Only one page is loaded at a time and prefetching stops once a page comes back short.
+     *
+     * @param prefetchDistance the distance in rows, 0 disables prefetching. Defaults to 0
+     */
+    public void setPrefetchDistance(int prefetchDistance) {
+        this.prefetchDistance = prefetchDistance;
+    }
+
+    /**
+     * Cancels the requests of this adapter still in flight, their responses are neither decoded nor delivered.
+     * To be invoked when the screen displaying this adapter goes away
+     */
+    public void cancelRequests() {
+        requests.cancelAll();
     }
 
     /**
@@ -205,10 +438,12 @@ public class SodaBaseAdapter<Holder extends BindableView<Data>, Data> extends Ba
      */
     @Override
     public int getCount() {
-        return data == null ? 0 : data.size();
+        return data == null ? 0 : data.getCount();
     }
 
     /**
+     * Gets the row at a position, null if its page has been dropped from memory
+     *
      * @see android.widget.BaseAdapter#getItem(int)
      */
     @Override
@@ -249,7 +484,17 @@ public class SodaBaseAdapter<Holder extends BindableView<Data>, Data> extends Ba
         } else {
             holder = (Holder) convertView.getTag();
         }
-        holder.bindView(getItem(position), position, convertView, parent);
+        Data item = getItem(position);
+        if (item != null) {
+            convertView.setVisibility(View.VISIBLE);
+            holder.bindView(item, position, convertView, parent);
+        } else {
+            convertView.setVisibility(View.INVISIBLE);
+            loadMissingPage(data.getPage(position));
+        }
+        if (prefetchDistance > 0 && !loading && !exhausted && position >= data.getLoadedCount() - prefetchDistance) {
+            obtainMoreData();
+        }
         return convertView;
     }
 }
@@ -74,6 +74,9 @@ public abstract class SodaListActivity<Holder extends BindableView<Data>, Data>
         Type[] types = typedClass.getActualTypeArguments();
         adapter = new SodaBaseAdapter<Holder, Data>(this, (Class<Holder>) types[0]);
         adapter.setConsumer(getConsumer());
+        adapter.setPrefetchDistance(getPrefetchDistance());
+        adapter.setPageWindow(getPageWindow());
+        adapter.setCounting(isCounting());
         adapter.setSodaAdapterListener(new SodaBaseAdapter.SodaAdapterListener<Data>() {
             @Override
             public void onQueryStarted() {
@@ -121,6 +124,17 @@ public abstract class SodaListActivity<Holder extends BindableView<Data>, Data>
         adapter.setQuery(getQuery());
     }
 
+    /**
+     * Cancels the requests in flight so their responses are not decoded for an activity that is gone
+     *
+     * @see Activity#onDestroy()
+     */
+    @Override
+    protected void onDestroy() {
+        adapter.cancelRequests();
+        super.onDestroy();
+    }
+
     /**
      * @return the consumer associated with this list activity
      */
@@ -131,6 +145,31 @@ public abstract class SodaListActivity<Holder extends BindableView<Data>, Data>
      */
     public abstract Query getQuery();
 
+    /**
+     * @return the number of rows from the end of the list at which the next page is loaded in the background,
+     * 0 to load pages only when the more footer is clicked
+     * @see SodaBaseAdapter#setPrefetchDistance(int)
+     */
+    public int getPrefetchDistance() {
+        return 0;
+    }
+
+    /**
+     * @return the max number of pages kept in memory, 0 to keep every page loaded
+     * @see SodaBaseAdapter#setPageWindow(int)
+     */
+    public int getPageWindow() {
+        return 0;
+    }
+
+    /**
+     * @return whether the rows of the query are counted to size the list upfront
+     * @see SodaBaseAdapter#setCounting(boolean)
+     */
+    public boolean isCounting() {
+        return false;
+    }
+
     /**
      * To be implmented by subclasses that want to provide extra functionality on clicked items
      *
@@ -79,6 +79,9 @@ public abstract class SodaListFragment<Holder extends BindableView<Data>, Data>
         Type[] types = typedClass.getActualTypeArguments();
         adapter = new SodaBaseAdapter<Holder, Data>(getActivity(), (Class<Holder>) types[0]);
         adapter.setConsumer(getConsumer());
+        adapter.setPrefetchDistance(getPrefetchDistance());
+        adapter.setPageWindow(getPageWindow());
+        adapter.setCounting(isCounting());
         adapter.setSodaAdapterListener(new SodaBaseAdapter.SodaAdapterListener<Data>() {
             @Override
             public void onQueryStarted() {
@@ -126,6 +129,17 @@ public abstract class SodaListFragment<Holder extends BindableView<Data>, Data>
         return view;
     }
 
+    /**
+     * Cancels the requests in flight so their responses are not decoded for a view that is gone
+     *
+     * @see Fragment#onDestroyView()
+     */
+    @Override
+    public void onDestroyView() {
+        adapter.cancelRequests();
+        super.onDestroyView();
+    }
+
     /**
      * @return the consumer associated with this list activity
      */
@@ -136,6 +150,31 @@ public abstract class SodaListFragment<Holder extends BindableView<Data>, Data>
      */
     public abstract Query getQuery();
 
+    /**
+     * @return the number of rows from the end of the list at which the next page is loaded in the background,
+     * 0 to load pages only when the more footer is clicked
+     * @see SodaBaseAdapter#setPrefetchDistance(int)
+     */
+    public int getPrefetchDistance() {
+        return 0;
+    }
+
+    /**
+     * @return the max number of pages kept in memory, 0 to keep every page loaded
+     * @see SodaBaseAdapter#setPageWindow(int)
+     */
+    public int getPageWindow() {
+        return 0;
+    }
+
+    /**
+     * @return whether the rows of the query are counted to size the list upfront
+     * @see SodaBaseAdapter#setCounting(boolean)
+     */
+    public boolean isCounting() {
+        return false;
+    }
+
     /**
      * To be implmented by subclasses that want to provide extra functionality on clicked items
      *
@@ -0,0 +1,122 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.ui.map;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.socrata.android.client.SodaEntity;
+import com.socrata.android.client.SodaField;
+import com.socrata.android.soql.Query;
+import com.socrata.android.soql.clauses.BuildCapable;
+
+import static com.socrata.android.soql.clauses.Expression.*;
+
+/**
+ * The number of rows falling in a grid cell, computed by the server grouping rows by their coordinates snapped
+ * to the grid
+ */
+@SodaEntity
+public class Aggregate {
+
+    /**
+     * Alias of the snapped latitude column
+     */
+    public static final String LATITUDE_ALIAS = "lat_cell";
+
+    /**
+     * Alias of the snapped longitude column
+     */
+    public static final String LONGITUDE_ALIAS = "lng_cell";
+
+    /**
+     * Alias of the row count column
+     */
+    public static final String COUNT_ALIAS = "cell_count";
+
+    /**
+     * Max number of cells returned by an aggregate query
+     */
+    public static final int MAX_CELLS = 1000;
+
+    @SodaField(LATITUDE_ALIAS)
+    private Double latitude;
+
+    @SodaField(LONGITUDE_ALIAS)
+    private Double longitude;
+
+    @SodaField(COUNT_ALIAS)
+    private Long count;
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    /**
+     * @return the center of the cell
+     */
+    public LatLng getPosition() {
+        return new LatLng(latitude, longitude);
+    }
+
+    /**
+     * Builds the aggregate query counting the rows of a query per grid cell, e.g.
+     * 'select lat - (lat + 180) % 0.5 + 0.25 as lat_cell, ..., count(*) as cell_count where ... group by lat_cell, lng_cell'
+     *
+     * @param query           the query whose filters are aggregated
+     * @param latitudeColumn  the numeric latitude column
+     * @param longitudeColumn the numeric longitude column
+     * @param cell            the cell side in degrees
+     * @return the aggregate query mapped to Aggregate
+     */
+    public static Query query(Query query, String latitudeColumn, String longitudeColumn, double cell) {
+        Query aggregate = new Query(query.getDataset(), Aggregate.class);
+        aggregate.addSelect(
+                as(snap(latitudeColumn, cell), LATITUDE_ALIAS),
+                as(snap(longitudeColumn, cell), LONGITUDE_ALIAS),
+                as(count("*"), COUNT_ALIAS));
+        aggregate.addWhere(query.getWhere().getExpressions());
+        aggregate.addGroup(column(LATITUDE_ALIAS), column(LONGITUDE_ALIAS));
+        aggregate.setLimit(MAX_CELLS);
+        return aggregate;
+    }
+
+    /**
+     * Private helper that snaps a coordinate column to the center of its grid cell. Coordinates are shifted
+     * to be positive so the modulo floors them on both hemispheres
+     */
+    private static BuildCapable snap(String coordinate, double cell) {
+        return add(
+                subtract(column(coordinate), modulo(parentheses(add(coordinate, "180")), literal(cell))),
+                literal(cell / 2));
+    }
+
+}
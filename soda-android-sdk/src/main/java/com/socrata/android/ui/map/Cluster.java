@@ -0,0 +1,66 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.ui.map;
+
+import com.google.android.gms.maps.model.LatLng;
+
+import java.util.List;
+
+/**
+ * A group of rows falling in the same grid cell, displayed as a single marker at their centroid
+ *
+ * @param <Data> the type of data being clustered
+ */
+public final class Cluster<Data> {
+
+    private final Tile cell;
+
+    private final LatLng position;
+
+    private final List<Data> items;
+
+    /**
+     * Constructs a cluster
+     *
+     * @param cell     the grid cell
+     * @param position the centroid of the rows
+     * @param items    the rows
+     */
+    public Cluster(Tile cell, LatLng position, List<Data> items) {
+        this.cell = cell;
+        this.position = position;
+        this.items = items;
+    }
+
+    public Tile getCell() {
+        return cell;
+    }
+
+    public LatLng getPosition() {
+        return position;
+    }
+
+    public List<Data> getItems() {
+        return items;
+    }
+
+    public int getSize() {
+        return items.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Cluster{%s, %d items}", cell, items.size());
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.ui.map;
+
+import com.google.android.gms.maps.model.LatLng;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups rows into clusters on a grid of slippy tiles a few levels below the camera zoom, a quarter of a tile
+ * side per cell by default. Clusters are cached per zoom level for the current rows, zooming out merges the
+ * cells of the nearest finer level already clustered instead of placing every row again.
+ * Clustering is thread safe and meant to run off the UI thread.
+ *
+ * @param <Data> the type of data being clustered
+ */
+public class GridClusterer<Data> {
+
+    /**
+     * Levels the grid is below the camera zoom, each one halves the cell side
+     */
+    public static final int CELL_LEVELS = 2;
+
+    /**
+     * Deepest grid level
+     */
+    public static final int MAX_LEVEL = TileCache.MAX_ZOOM + CELL_LEVELS;
+
+    /**
+     * Provides the rows positions
+     */
+    private final MarkerManager.MarkerSource<Data> source;
+
+    /**
+     * The rows the cached clusters belong to
+     */
+    private Map<Object, Data> rows;
+
+    /**
+     * The cached clusters by grid level
+     */
+    private final Map<Integer, List<Cluster<Data>>> levels = new HashMap<Integer, List<Cluster<Data>>>();
+
+    /**
+     * Constructs a clusterer
+     *
+     * @param source provides the rows positions, rows without position are not clustered
+     */
+    public GridClusterer(MarkerManager.MarkerSource<Data> source) {
+        this.source = source;
+    }
+
+    /**
+     * Clusters rows for a camera zoom
+     *
+     * @param rows the rows by identity
+     * @param zoom the camera zoom level
+     * @return the clusters
+     */
+    public synchronized List<Cluster<Data>> getClusters(Map<Object, Data> rows, int zoom) {
+        if (this.rows == null || !this.rows.keySet().equals(rows.keySet())) {
+            levels.clear();
+            this.rows = rows;
+        }
+        int level = Math.max(0, Math.min(MAX_LEVEL, zoom + CELL_LEVELS));
+        List<Cluster<Data>> clusters = levels.get(level);
+        if (clusters == null) {
+            int finer = level + 1;
+            while (finer <= MAX_LEVEL && !levels.containsKey(finer)) {
+                finer++;
+            }
+            clusters = finer <= MAX_LEVEL ? merge(levels.get(finer), level) : cluster(this.rows.values(), level);
+            levels.put(level, clusters);
+        }
+        return clusters;
+    }
+
+    /**
+     * Private helper that places rows in the grid cells of a level
+     */
+    private List<Cluster<Data>> cluster(Iterable<Data> rows, int level) {
+        Map<Tile, List<Data>> items = new LinkedHashMap<Tile, List<Data>>();
+        Map<Tile, double[]> sums = new HashMap<Tile, double[]>();
+        for (Data row : rows) {
+            LatLng position = source.getPosition(row);
+            if (position == null) {
+                continue;
+            }
+            Tile cell = Tile.at(position.latitude, position.longitude, level);
+            List<Data> cellItems = items.get(cell);
+            if (cellItems == null) {
+                cellItems = new ArrayList<Data>();
+                items.put(cell, cellItems);
+                sums.put(cell, new double[2]);
+            }
+            cellItems.add(row);
+            double[] sum = sums.get(cell);
+            sum[0] += position.latitude;
+            sum[1] += position.longitude;
+        }
+        List<Cluster<Data>> clusters = new ArrayList<Cluster<Data>>(items.size());
+        for (Map.Entry<Tile, List<Data>> entry : items.entrySet()) {
+            double[] sum = sums.get(entry.getKey());
+            int size = entry.getValue().size();
+            clusters.add(new Cluster<Data>(entry.getKey(), new LatLng(sum[0] / size, sum[1] / size), entry.getValue()));
+        }
+        return clusters;
+    }
+
+    /**
+     * Merges the clusters of a finer level into the grid cells of a coarser one
+     *
+     * @param finer the clusters of the finer level
+     * @param level the coarser level
+     * @return the merged clusters
+     */
+    public static <Data> List<Cluster<Data>> merge(List<Cluster<Data>> finer, int level) {
+        Map<Tile, List<Cluster<Data>>> children = new LinkedHashMap<Tile, List<Cluster<Data>>>();
+        for (Cluster<Data> cluster : finer) {
+            Tile cell = cluster.getCell();
+            int shift = cell.getZoom() - level;
+            Tile parent = new Tile(level, cell.getX() >> shift, cell.getY() >> shift);
+            List<Cluster<Data>> parentChildren = children.get(parent);
+            if (parentChildren == null) {
+                parentChildren = new ArrayList<Cluster<Data>>();
+                children.put(parent, parentChildren);
+            }
+            parentChildren.add(cluster);
+        }
+        List<Cluster<Data>> clusters = new ArrayList<Cluster<Data>>(children.size());
+        for (Map.Entry<Tile, List<Cluster<Data>>> entry : children.entrySet()) {
+            List<Cluster<Data>> parentChildren = entry.getValue();
+            if (parentChildren.size() == 1) {
+                Cluster<Data> child = parentChildren.get(0);
+                clusters.add(new Cluster<Data>(entry.getKey(), child.getPosition(), child.getItems()));
+                continue;
+            }
+            List<Data> items = new ArrayList<Data>();
+            double latitude = 0;
+            double longitude = 0;
+            for (Cluster<Data> child : parentChildren) {
+                items.addAll(child.getItems());
+                latitude += child.getPosition().latitude * child.getSize();
+                longitude += child.getPosition().longitude * child.getSize();
+            }
+            clusters.add(new Cluster<Data>(entry.getKey(), new LatLng(latitude / items.size(), longitude / items.size()), items));
+        }
+        return clusters;
+    }
+
+}
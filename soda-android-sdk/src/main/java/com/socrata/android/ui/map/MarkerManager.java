@@ -0,0 +1,232 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.ui.map;
+
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.MarkerOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the markers on a map in sync with a set of rows keyed by their identity.
+ * Markers are only added for rows that are not displayed yet and removed for rows that are no longer loaded,
+ * rows that stay loaded keep their marker untouched. The number of markers is capped, the rows farthest from the
+ * viewport center are left out once the cap is reached.
+ *
+ * @param <Data> the type of data being displayed
+ */
+public class MarkerManager<Data> {
+
+    /**
+     * Default max number of markers on the map
+     */
+    public static final int DEFAULT_MAX_MARKERS = 1000;
+
+    /**
+     * Converts rows into markers
+     *
+     * @param <Data> the type of data being displayed
+     */
+    public interface MarkerSource<Data> {
+
+        /**
+         * @param data the model
+         * @return the marker representation
+         */
+        MarkerOptions toMarkerOptions(Data data);
+
+        /**
+         * @param data the model
+         * @return the position of the model on the map or null if unknown
+         */
+        LatLng getPosition(Data data);
+    }
+
+    /**
+     * The map markers are added to
+     */
+    private final GoogleMap map;
+
+    /**
+     * Converts rows into markers
+     */
+    private final MarkerSource<Data> source;
+
+    /**
+     * The markers on the map by row identity
+     */
+    private final Map<Object, Marker> markers = new HashMap<Object, Marker>();
+
+    /**
+     * The markers using the default look that can be moved to display a different row
+     */
+    private final Set<Marker> reusable = new HashSet<Marker>();
+
+    /**
+     * Max number of markers on the map
+     */
+    private int maxMarkers = DEFAULT_MAX_MARKERS;
+
+    /**
+     * Constructs a marker manager
+     *
+     * @param map    the map markers are added to
+     * @param source converts rows into markers
+     */
+    public MarkerManager(GoogleMap map, MarkerSource<Data> source) {
+        this.map = map;
+        this.source = source;
+    }
+
+    /**
+     * Syncs the markers on the map with the loaded rows. Markers whose rows are no longer loaded are moved to
+     * display new rows when both use the default look, otherwise they are removed and new ones added
+     *
+     * @param rows   the loaded rows by identity
+     * @param center the viewport center the marker cap keeps the nearest rows to
+     */
+    public void update(Map<Object, Data> rows, LatLng center) {
+        Map<Object, Data> displayed = rows.size() > maxMarkers ? nearest(rows, center, maxMarkers, source) : rows;
+        List<Marker> released = new ArrayList<Marker>();
+        Iterator<Map.Entry<Object, Marker>> iterator = markers.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Object, Marker> entry = iterator.next();
+            if (!displayed.containsKey(entry.getKey())) {
+                Marker marker = entry.getValue();
+                if (reusable.contains(marker)) {
+                    released.add(marker);
+                } else {
+                    marker.remove();
+                }
+                iterator.remove();
+            }
+        }
+        for (Map.Entry<Object, Data> entry : displayed.entrySet()) {
+            if (!markers.containsKey(entry.getKey())) {
+                MarkerOptions options = source.toMarkerOptions(entry.getValue());
+                Marker marker;
+                if (isReusable(options) && !released.isEmpty()) {
+                    marker = released.remove(released.size() - 1);
+                    marker.setPosition(options.getPosition());
+                    marker.setTitle(options.getTitle());
+                    marker.setSnippet(options.getSnippet());
+                } else {
+                    marker = map.addMarker(options);
+                    if (isReusable(options)) {
+                        reusable.add(marker);
+                    }
+                }
+                markers.put(entry.getKey(), marker);
+            }
+        }
+        for (Marker marker : released) {
+            reusable.remove(marker);
+            marker.remove();
+        }
+    }
+
+    /**
+     * Private helper that checks whether a marker only differs from others in its position, title and snippet,
+     * the only properties that can be changed once added
+     */
+    private static boolean isReusable(MarkerOptions options) {
+        return options.getIcon() == null && !options.isDraggable() && options.isVisible();
+    }
+
+    /**
+     * Selects the rows nearest to a point
+     *
+     * @param rows   the rows by identity
+     * @param center the point
+     * @param max    the max number of rows selected
+     * @param source provides the rows positions, rows without position are the last ones selected
+     * @return the nearest rows by identity
+     */
+    public static <Data> Map<Object, Data> nearest(Map<Object, Data> rows, LatLng center, int max, MarkerSource<Data> source) {
+        final double scale = Math.cos(Math.toRadians(center.latitude));
+        final Map<Object, Double> distances = new HashMap<Object, Double>();
+        for (Map.Entry<Object, Data> entry : rows.entrySet()) {
+            LatLng position = source.getPosition(entry.getValue());
+            double distance = Double.MAX_VALUE;
+            if (position != null) {
+                double dx = position.longitude - center.longitude;
+                if (dx > 180) {
+                    dx -= 360;
+                } else if (dx < -180) {
+                    dx += 360;
+                }
+                double dy = position.latitude - center.latitude;
+                distance = dx * dx * scale * scale + dy * dy;
+            }
+            distances.put(entry.getKey(), distance);
+        }
+        List<Object> ids = new ArrayList<Object>(rows.keySet());
+        Collections.sort(ids, new Comparator<Object>() {
+            @Override
+            public int compare(Object lhs, Object rhs) {
+                return Double.compare(distances.get(lhs), distances.get(rhs));
+            }
+        });
+        Map<Object, Data> selected = new LinkedHashMap<Object, Data>();
+        for (Object id : ids.subList(0, Math.min(max, ids.size()))) {
+            selected.put(id, rows.get(id));
+        }
+        return selected;
+    }
+
+    /**
+     * @return the number of markers on the map
+     */
+    public int size() {
+        return markers.size();
+    }
+
+    /**
+     * @return the max number of markers on the map
+     */
+    public int getMaxMarkers() {
+        return maxMarkers;
+    }
+
+    /**
+     * Sets the max number of markers on the map, applied on the next update
+     *
+     * @param maxMarkers the max number of markers
+     */
+    public void setMaxMarkers(int maxMarkers) {
+        this.maxMarkers = maxMarkers;
+    }
+
+    /**
+     * Removes all markers from the map
+     */
+    public void clear() {
+        for (Marker marker : markers.values()) {
+            marker.remove();
+        }
+        markers.clear();
+        reusable.clear();
+    }
+
+}
@@ -13,6 +13,7 @@
 package com.socrata.android.ui.map;
 
 import android.os.Bundle;
+import android.os.Handler;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -21,17 +22,29 @@ import android.widget.Toast;
 
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.SupportMapFragment;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.CameraPosition;
+import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.MarkerOptions;
 import com.socrata.android.client.Callback;
 import com.socrata.android.client.Consumer;
+import com.socrata.android.client.JsonAdapter;
+import com.socrata.android.client.RequestScope;
 import com.socrata.android.client.Response;
 import com.socrata.android.client.ResponseError;
 import com.socrata.android.soql.Query;
 import com.socrata.android.soql.datatypes.GeoBox;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Abstract reusable class for Soda items that want to simply display Soda query results on a map inside a fragment
@@ -40,11 +53,151 @@ import java.util.List;
  */
 public abstract class SodaMapFragment<Data> extends SupportMapFragment implements GoogleMap.OnCameraChangeListener {
 
+    /**
+     * Default time in milliseconds the camera has to stay still before the viewport is reloaded
+     */
+    public static final long DEFAULT_RELOAD_DEBOUNCE = 300;
+
+    /**
+     * Suggested memory budget of the tile cache in rows, the tile cache is disabled until a budget is set
+     */
+    public static final int DEFAULT_TILE_CACHE_SIZE = 5000;
+
+    /**
+     * Max number of requests a reload sends for the halves of tile runs whose results reached the query limit
+     */
+    public static final int MAX_SPLIT_REQUESTS = 8;
+
+    /**
+     * Default column identifying rows across reloads
+     */
+    public static final String DEFAULT_ID_COLUMN = ":id";
+
+    /**
+     * Default camera zoom below which rows are aggregated by the server when aggregation is enabled
+     */
+    public static final int DEFAULT_AGGREGATE_ZOOM = 10;
+
     /**
      * Indicates this map has received data at some point
      */
     private boolean firstLoad = false;
 
+    /**
+     * Time in milliseconds the camera has to stay still before the viewport is reloaded
+     */
+    private long reloadDebounce = DEFAULT_RELOAD_DEBOUNCE;
+
+    /**
+     * Handler where debounced reloads are scheduled
+     */
+    private final Handler reloadHandler = new Handler();
+
+    /**
+     * A debounced reload
+     */
+    private final Runnable reloadTask = new Runnable() {
+        @Override
+        public void run() {
+            reload();
+        }
+    };
+
+    /**
+     * The viewport requests in flight
+     */
+    private final RequestScope currentRequests = new RequestScope();
+
+    /**
+     * Spatial cache of loaded tiles or null if disabled, the default
+     */
+    private TileCache<Data> tileCache;
+
+    /**
+     * Incremented on every reload so responses to superseded viewports are dropped
+     */
+    private int generation;
+
+    /**
+     * Number of requests the current reload sent for the halves of truncated tile runs
+     */
+    private int splitRequests;
+
+    /**
+     * The tiles covering the current viewport
+     */
+    private List<Tile> visibleTiles = new ArrayList<Tile>();
+
+    /**
+     * Rows of the current viewport results that are not held by any tile, cleared on every reload
+     */
+    private final List<Data> looseRows = new ArrayList<Data>();
+
+    /**
+     * Keeps the markers in sync with the loaded rows, created once the map is available
+     */
+    private MarkerManager<Data> markerManager;
+
+    /**
+     * Max number of markers on the map
+     */
+    private int maxMarkers = MarkerManager.DEFAULT_MAX_MARKERS;
+
+    /**
+     * Groups rows into clusters or null if clustering is disabled
+     */
+    private GridClusterer<Data> clusterer;
+
+    /**
+     * Keeps the cluster markers in sync with the clusters, created once the map is available
+     */
+    private MarkerManager<Cluster<Data>> clusterManager;
+
+    /**
+     * Worker thread clusters are computed on
+     */
+    private ExecutorService clusterExecutor;
+
+    /**
+     * Incremented on every clustering so outdated clusters are dropped
+     */
+    private int clusterGeneration;
+
+    /**
+     * The numeric latitude column rows are aggregated by or null if aggregation is disabled
+     */
+    private String aggregateLatitudeColumn;
+
+    /**
+     * The numeric longitude column rows are aggregated by
+     */
+    private String aggregateLongitudeColumn;
+
+    /**
+     * Camera zoom below which rows are aggregated
+     */
+    private int aggregateZoom = DEFAULT_AGGREGATE_ZOOM;
+
+    /**
+     * Keeps the aggregate markers in sync with the aggregates, created once the map is available
+     */
+    private MarkerManager<Aggregate> aggregateManager;
+
+    /**
+     * The highest count of the displayed aggregates the markers are weighted against
+     */
+    private long aggregateMaxCount;
+
+    /**
+     * The column identifying rows across reloads
+     */
+    private String idColumn = DEFAULT_ID_COLUMN;
+
+    /**
+     * Reads the id column from model entities
+     */
+    private JsonAdapter<Data> idAdapter;
+
     /**
      * Receives map query lifecycle events
      */
@@ -110,13 +263,52 @@ public abstract class SodaMapFragment<Data> extends SupportMapFragment implement
     }
 
     /**
-     * Calls a map reload when the viewport updates in order to allow subclasses reload the query if necessary
+     * @see com.google.android.gms.maps.SupportMapFragment#onDestroyView()
+     */
+    @Override
+    public void onDestroyView() {
+        reloadHandler.removeCallbacks(reloadTask);
+        cancelCurrentRequests();
+        markerManager = null;
+        clusterManager = null;
+        aggregateManager = null;
+        if (clusterExecutor != null) {
+            clusterExecutor.shutdownNow();
+            clusterExecutor = null;
+        }
+        super.onDestroyView();
+    }
+
+    /**
+     * Schedules a map reload when the viewport updates in order to allow subclasses reload the query if necessary.
+     * Reloads are debounced so a pan or fling only reloads the viewport where the camera comes to rest
      *
      * @see GoogleMap.OnCameraChangeListener#onCameraChange(com.google.android.gms.maps.model.CameraPosition)
      */
     @Override
     public void onCameraChange(CameraPosition cameraPosition) {
-        reload();
+        reloadHandler.removeCallbacks(reloadTask);
+        if (reloadDebounce > 0) {
+            reloadHandler.postDelayed(reloadTask, reloadDebounce);
+        } else {
+            reload();
+        }
+    }
+
+    /**
+     * @return time in milliseconds the camera has to stay still before the viewport is reloaded
+     */
+    public long getReloadDebounce() {
+        return reloadDebounce;
+    }
+
+    /**
+     * Sets the time the camera has to stay still before the viewport is reloaded
+     *
+     * @param reloadDebounce the debounce window in milliseconds, 0 reloads on every camera change
+     */
+    public void setReloadDebounce(long reloadDebounce) {
+        this.reloadDebounce = reloadDebounce;
     }
 
     /**
@@ -134,7 +326,10 @@ public abstract class SodaMapFragment<Data> extends SupportMapFragment implement
     public abstract Consumer getConsumer();
 
     /**
-     * The query associated with this current viewport geo box (ne, sw)
+     * The query associated with a geo box (ne, sw). While the tile cache is enabled it is invoked once for each run
+     * of adjacent tiles missing from the cache rather than once for the whole viewport, and again for each half of a
+     * run whose results reach the query limit, so it must filter by the box. Call {@link #invalidateTileCache()} when the filters of the query
+     * change so tiles loaded with the previous ones are not displayed
      *
      * @param box the Geo box
      * @return the query
@@ -157,7 +352,9 @@ public abstract class SodaMapFragment<Data> extends SupportMapFragment implement
     }
 
     /**
-     * Reloads the map data and refreshes the markers
+     * Reloads the map data and refreshes the markers. Only the tiles of the viewport that are not cached yet
+     * are queried, adjacent missing tiles are queried together. Requests for the previous viewport are cancelled
+     * if they are still in flight and their results are dropped if they arrive anyway
      */
     public void reload() {
         if (!firstLoad || reloadOnMapChanged()) {
@@ -166,33 +363,476 @@ public abstract class SodaMapFragment<Data> extends SupportMapFragment implement
 
             Log.d("socrata", "Reload: " + box.toString());
 
-            mapQueryListener.onQueryStarted();
-            consumer.getObjects(getQuery(box), new Callback<List<Data>>() {
-                @Override
-                public void onResults(Response<List<Data>> response) {
-                    if (response.hasError()) {
-                        mapQueryListener.onQueryResponseError(response);
+            cancelCurrentRequests();
+            final int requestGeneration = ++generation;
+            looseRows.clear();
+            splitRequests = 0;
+            float cameraZoom = getMap().getCameraPosition().zoom;
+            if (aggregateLatitudeColumn != null && cameraZoom < aggregateZoom) {
+                visibleTiles = new ArrayList<Tile>();
+                mapQueryListener.onQueryStarted();
+                requestAggregates(box, TileCache.zoomFor(cameraZoom), requestGeneration);
+            } else if (tileCache == null) {
+                visibleTiles = new ArrayList<Tile>();
+                mapQueryListener.onQueryStarted();
+                request(box, null, requestGeneration, new int[]{1});
+            } else {
+                int zoom = TileCache.zoomFor(cameraZoom);
+                visibleTiles = TileCache.getTiles(box.getNorth(), box.getEast(), box.getSouth(), box.getWest(), zoom);
+                List<Tile> missing = new ArrayList<Tile>();
+                for (Tile tile : visibleTiles) {
+                    if (!tileCache.contains(tile)) {
+                        missing.add(tile);
+                    }
+                }
+                if (missing.isEmpty()) {
+                    refreshMarkers();
+                } else {
+                    List<List<Tile>> runs = TileCache.mergeRuns(missing);
+                    Log.d("socrata", String.format("Reload: %d missing tiles in %d runs", missing.size(), runs.size()));
+                    mapQueryListener.onQueryStarted();
+                    int[] pending = new int[]{runs.size()};
+                    for (List<Tile> run : runs) {
+                        request(TileCache.toGeoBox(run), run, requestGeneration, pending);
+                    }
+                }
+            }
+        }
+        firstLoad = true;
+    }
+
+    /**
+     * Private helper that queries a bounding box and, when the box is a run of tiles, caches the results in the
+     * tiles they fall in. Results that reach the query limit may be missing rows so they are not cached. When all of
+     * them fall inside the run, which means the query filters by the box, the run is split and each half is queried
+     * again, up to {@link #MAX_SPLIT_REQUESTS} requests per reload. Splitting a query that doesn't filter by the box
+     * would return the same truncated results for each half
+     *
+     * @param box               the bounding box
+     * @param run               the run of tiles the box covers or null when tiles are not cached
+     * @param requestGeneration the reload generation the request belongs to
+     * @param pending           the number of requests of this generation still in flight
+     */
+    private void request(GeoBox box, final List<Tile> run, final int requestGeneration, final int[] pending) {
+        final Query query = getQuery(box);
+        currentRequests.add(consumer.getObjects(query, new Callback<List<Data>>() {
+            @Override
+            public void onResults(Response<List<Data>> response) {
+                if (requestGeneration != generation) {
+                    Log.d("socrata", "Dropping stale viewport results");
+                    return;
+                }
+                if (response.hasError()) {
+                    cancelCurrentRequests();
+                    generation++;
+                    mapQueryListener.onQueryResponseError(response);
+                } else {
+                    List<Data> rows = response.getEntity();
+                    boolean truncated = TileCache.isTruncated(rows.size(), query.getLimit());
+                    if (run != null && !truncated) {
+                        cacheTiles(run, rows);
                     } else {
-                        loadData(response.getEntity());
+                        looseRows.addAll(rows);
+                    }
+                    if (run != null && truncated && run.size() > 1 && splitRequests + 2 <= MAX_SPLIT_REQUESTS && isWithinRun(run, rows)) {
+                        List<List<Tile>> halves = TileCache.splitRun(run);
+                        splitRequests += halves.size();
+                        pending[0] += halves.size();
+                        for (List<Tile> half : halves) {
+                            request(TileCache.toGeoBox(half), half, requestGeneration, pending);
+                        }
+                    }
+                    refreshMarkers();
+                    if (--pending[0] == 0) {
                         mapQueryListener.onQueryCompleted();
                     }
                 }
-            });
+            }
+        }));
+    }
+
+    /**
+     * Private helper that splits the results of a run of tiles into the tiles they fall in, rows outside the run
+     * are kept as loose rows
+     */
+    private void cacheTiles(List<Tile> run, List<Data> data) {
+        Map<Tile, List<Data>> rows = new HashMap<Tile, List<Data>>();
+        for (Tile tile : run) {
+            rows.put(tile, new ArrayList<Data>());
         }
-        firstLoad = true;
+        int zoom = run.get(0).getZoom();
+        for (Data item : data) {
+            LatLng position = getPosition(item);
+            if (position != null) {
+                List<Data> tileRows = rows.get(Tile.at(position.latitude, position.longitude, zoom));
+                if (tileRows != null) {
+                    tileRows.add(item);
+                    continue;
+                }
+            }
+            looseRows.add(item);
+        }
+        for (Map.Entry<Tile, List<Data>> entry : rows.entrySet()) {
+            tileCache.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Private helper that checks whether all the results of a run fall in its tiles
+     */
+    private boolean isWithinRun(List<Tile> run, List<Data> data) {
+        Set<Tile> tiles = new HashSet<Tile>(run);
+        int zoom = run.get(0).getZoom();
+        for (Data item : data) {
+            LatLng position = getPosition(item);
+            if (position == null || !tiles.contains(Tile.at(position.latitude, position.longitude, zoom))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Private helper that requests model entities in the returned results are transformed into their
-     * marker representation
+     * The position of a model entity on the map, used to place results in their tiles
      *
-     * @param data the returned results
+     * @param data the model
+     * @return the position, by default the position of its marker
+     */
+    public LatLng getPosition(Data data) {
+        return toMarkerOptions(data).getPosition();
+    }
+
+    /**
+     * Enables the tile cache that serves viewports over already loaded areas without querying them again and sets
+     * its memory budget. The tile cache is disabled by default. While it is enabled {@link #getQuery(GeoBox)} must
+     * filter by the box, e.g. with withinBox, otherwise results reach the query limit and are never cached
+     *
+     * @param maxRows the max number of rows held by all cached tiles, e.g. {@link #DEFAULT_TILE_CACHE_SIZE},
+     *                0 disables the tile cache
+     */
+    public void setTileCacheSize(int maxRows) {
+        tileCache = maxRows > 0 ? new TileCache<Data>(maxRows) : null;
+    }
+
+    /**
+     * Evicts all cached tiles and drops the results of requests in flight, the next reload queries the whole
+     * viewport again. Call it when the filters behind {@link #getQuery(GeoBox)} change
+     */
+    public void invalidateTileCache() {
+        cancelCurrentRequests();
+        generation++;
+        if (tileCache != null) {
+            tileCache.clear();
+        }
+    }
+
+    /**
+     * Private helper that cancels the viewport requests in flight if any
+     */
+    private void cancelCurrentRequests() {
+        currentRequests.cancelAll();
+    }
+
+    /**
+     * The identity of a model entity used to keep its marker across reloads
+     *
+     * @param data the model
+     * @return by default the value of the id column or the model itself if the model does not map it
+     */
+    @SuppressWarnings("unchecked")
+    public Object getMarkerId(Data data) {
+        if (idAdapter == null || idAdapter.getTarget() != data.getClass()) {
+            idAdapter = new JsonAdapter<Data>((Class<Data>) data.getClass(), consumer.getDataTypesMapper());
+        }
+        Object id = idAdapter.getSodaFields().contains(idColumn) ? idAdapter.getValue(data, idColumn) : null;
+        return id != null ? id : data;
+    }
+
+    /**
+     * Sets the column identifying rows across reloads, the model must map it
+     *
+     * @param idColumn the SODA column, :id by default
+     */
+    public void setIdColumn(String idColumn) {
+        this.idColumn = idColumn;
+    }
+
+    /**
+     * Sets the max number of markers on the map, the rows farthest from the viewport center are not displayed
+     * once the cap is reached
+     *
+     * @param maxMarkers the max number of markers
+     */
+    public void setMaxMarkers(int maxMarkers) {
+        this.maxMarkers = maxMarkers;
+        if (markerManager != null) {
+            markerManager.setMaxMarkers(maxMarkers);
+        }
+        if (clusterManager != null) {
+            clusterManager.setMaxMarkers(maxMarkers);
+        }
+    }
+
+    /**
+     * Private helper that syncs the markers with the rows of the tiles covering the viewport and the rows
+     * of the latest results not held by any tile
      */
-    private void loadData(List<Data> data) {
+    private void refreshMarkers() {
+        if (aggregateManager != null) {
+            aggregateManager.clear();
+        }
+        Map<Object, Data> rows = new LinkedHashMap<Object, Data>();
+        if (tileCache != null) {
+            for (Tile tile : visibleTiles) {
+                List<Data> tileRows = tileCache.get(tile);
+                if (tileRows != null) {
+                    addRows(rows, tileRows);
+                }
+            }
+        }
+        addRows(rows, looseRows);
+        if (clusterer == null) {
+            loadData(rows);
+        } else {
+            loadClusters(rows);
+        }
+    }
+
+    /**
+     * Private helper that keys rows by their identity
+     */
+    private void addRows(Map<Object, Data> rows, List<Data> data) {
         for (Data item : data) {
-            MarkerOptions marker = toMarkerOptions(item);
-            getMap().addMarker(marker);
+            rows.put(getMarkerId(item), item);
+        }
+    }
+
+    /**
+     * Private helper that syncs the markers on the map with the loaded model entities, only entities not
+     * displayed yet are transformed into their marker representation
+     *
+     * @param data the loaded model entities by identity
+     */
+    private void loadData(Map<Object, Data> data) {
+        if (markerManager == null) {
+            markerManager = new MarkerManager<Data>(getMap(), new MarkerManager.MarkerSource<Data>() {
+                @Override
+                public MarkerOptions toMarkerOptions(Data data) {
+                    return SodaMapFragment.this.toMarkerOptions(data);
+                }
+
+                @Override
+                public LatLng getPosition(Data data) {
+                    return SodaMapFragment.this.getPosition(data);
+                }
+            });
+            markerManager.setMaxMarkers(maxMarkers);
+        }
+        markerManager.update(data, getMap().getCameraPosition().target);
+    }
+
+    /**
+     * Enables or disables client side clustering of nearby rows into a single marker. Clusters are computed
+     * off the UI thread, so {@link #getPosition(Object)} must not touch the UI while clustering is enabled
+     *
+     * @param clustering whether rows are clustered
+     */
+    public void setClustering(boolean clustering) {
+        if (clustering && clusterer == null) {
+            clusterer = new GridClusterer<Data>(new MarkerManager.MarkerSource<Data>() {
+                @Override
+                public MarkerOptions toMarkerOptions(Data data) {
+                    return SodaMapFragment.this.toMarkerOptions(data);
+                }
+
+                @Override
+                public LatLng getPosition(Data data) {
+                    return SodaMapFragment.this.getPosition(data);
+                }
+            });
+            if (markerManager != null) {
+                markerManager.clear();
+            }
+        } else if (!clustering && clusterer != null) {
+            clusterer = null;
+            clusterGeneration++;
+            if (clusterManager != null) {
+                clusterManager.clear();
+            }
+        }
+    }
+
+    /**
+     * Converts a cluster of several model entities into its marker representation, clusters of a single
+     * entity are displayed with {@link #toMarkerOptions(Object)}
+     *
+     * @param cluster the cluster
+     * @return the marker representation, by default a marker at the cluster centroid titled with its size
+     */
+    public MarkerOptions toClusterMarkerOptions(Cluster<Data> cluster) {
+        return new MarkerOptions().position(cluster.getPosition()).title(String.valueOf(cluster.getSize()));
+    }
+
+    /**
+     * Private helper that clusters the loaded model entities on a worker thread and syncs the cluster markers
+     * with the results on the UI thread
+     *
+     * @param data the loaded model entities by identity
+     */
+    private void loadClusters(final Map<Object, Data> data) {
+        if (clusterExecutor == null) {
+            clusterExecutor = Executors.newSingleThreadExecutor();
+        }
+        final GridClusterer<Data> currentClusterer = clusterer;
+        final int zoom = (int) getMap().getCameraPosition().zoom;
+        final int requestGeneration = ++clusterGeneration;
+        clusterExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final List<Cluster<Data>> clusters = currentClusterer.getClusters(data, zoom);
+                reloadHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (requestGeneration == clusterGeneration && clusterExecutor != null) {
+                            showClusters(clusters);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Private helper that syncs the cluster markers with the clusters
+     */
+    private void showClusters(List<Cluster<Data>> clusters) {
+        if (clusterManager == null) {
+            clusterManager = new MarkerManager<Cluster<Data>>(getMap(), new MarkerManager.MarkerSource<Cluster<Data>>() {
+                @Override
+                public MarkerOptions toMarkerOptions(Cluster<Data> cluster) {
+                    return cluster.getSize() == 1 ? SodaMapFragment.this.toMarkerOptions(cluster.getItems().get(0)) : toClusterMarkerOptions(cluster);
+                }
+
+                @Override
+                public LatLng getPosition(Cluster<Data> cluster) {
+                    return cluster.getPosition();
+                }
+            });
+            clusterManager.setMaxMarkers(maxMarkers);
+        }
+        Map<Object, Cluster<Data>> keyed = new LinkedHashMap<Object, Cluster<Data>>();
+        for (Cluster<Data> cluster : clusters) {
+            Object key = cluster.getSize() == 1 ? getMarkerId(cluster.getItems().get(0)) : cluster.getCell() + "#" + cluster.getSize();
+            keyed.put(key, cluster);
+        }
+        clusterManager.update(keyed, getMap().getCameraPosition().target);
+    }
+
+    /**
+     * Enables server side aggregation at low zoom levels, where the rows of the viewport are counted per grid cell
+     * by the server with a single query built out of the filters of {@link #getQuery(GeoBox)} instead of being
+     * downloaded, and each cell is displayed as a marker weighted by its count
+     *
+     * @param latitudeColumn  the numeric latitude column or null to disable aggregation
+     * @param longitudeColumn the numeric longitude column
+     * @param zoom            the camera zoom below which rows are aggregated
+     */
+    public void setAggregation(String latitudeColumn, String longitudeColumn, int zoom) {
+        this.aggregateLatitudeColumn = latitudeColumn;
+        this.aggregateLongitudeColumn = longitudeColumn;
+        this.aggregateZoom = zoom;
+    }
+
+    /**
+     * Enables server side aggregation below the default zoom
+     *
+     * @see #setAggregation(String, String, int)
+     */
+    public void setAggregation(String latitudeColumn, String longitudeColumn) {
+        setAggregation(latitudeColumn, longitudeColumn, DEFAULT_AGGREGATE_ZOOM);
+    }
+
+    /**
+     * Converts a grid cell count into its marker representation
+     *
+     * @param aggregate the cell count
+     * @param maxCount  the highest count of the viewport cells
+     * @return the marker representation, by default a marker at the cell center titled with its count and colored
+     * from azure to red as the count approaches the highest one in a logarithmic scale
+     */
+    public MarkerOptions toAggregateMarkerOptions(Aggregate aggregate, long maxCount) {
+        double weight = maxCount > 1 ? Math.log(aggregate.getCount()) / Math.log(maxCount) : 1;
+        float hue = (float) (BitmapDescriptorFactory.HUE_AZURE * (1 - weight));
+        return new MarkerOptions()
+                .position(aggregate.getPosition())
+                .title(String.valueOf(aggregate.getCount()))
+                .icon(BitmapDescriptorFactory.defaultMarker(hue));
+    }
+
+    /**
+     * Private helper that queries the counts of the grid cells covering a bounding box, a quarter of a tile
+     * side per cell
+     */
+    @SuppressWarnings("unchecked")
+    private void requestAggregates(GeoBox box, int zoom, final int requestGeneration) {
+        double cell = 360.0 / (1 << (zoom + GridClusterer.CELL_LEVELS));
+        Query query = Aggregate.query(getQuery(box), aggregateLatitudeColumn, aggregateLongitudeColumn, cell);
+        currentRequests.add(consumer.getObjects(query, new Callback<List<Aggregate>>() {
+            @Override
+            public void onResults(Response<List<Aggregate>> response) {
+                if (requestGeneration != generation) {
+                    Log.d("socrata", "Dropping stale viewport aggregates");
+                    return;
+                }
+                if (response.hasError()) {
+                    generation++;
+                    mapQueryListener.onQueryResponseError(response);
+                } else {
+                    showAggregates(response.getEntity());
+                    mapQueryListener.onQueryCompleted();
+                }
+            }
+        }));
+    }
+
+    /**
+     * Private helper that replaces the row and cluster markers with the aggregate markers, all of them are
+     * recreated when the highest count changes as their weights change
+     */
+    private void showAggregates(List<Aggregate> aggregates) {
+        if (markerManager != null) {
+            markerManager.clear();
+        }
+        clusterGeneration++;
+        if (clusterManager != null) {
+            clusterManager.clear();
+        }
+        long maxCount = 1;
+        for (Aggregate aggregate : aggregates) {
+            maxCount = Math.max(maxCount, aggregate.getCount());
+        }
+        if (aggregateManager == null) {
+            aggregateManager = new MarkerManager<Aggregate>(getMap(), new MarkerManager.MarkerSource<Aggregate>() {
+                @Override
+                public MarkerOptions toMarkerOptions(Aggregate aggregate) {
+                    return toAggregateMarkerOptions(aggregate, aggregateMaxCount);
+                }
+
+                @Override
+                public LatLng getPosition(Aggregate aggregate) {
+                    return aggregate.getPosition();
+                }
+            });
+        }
+        if (maxCount != aggregateMaxCount) {
+            aggregateManager.clear();
+            aggregateMaxCount = maxCount;
+        }
+        Map<Object, Aggregate> keyed = new LinkedHashMap<Object, Aggregate>();
+        for (Aggregate aggregate : aggregates) {
+            keyed.put(aggregate.getLatitude() + "," + aggregate.getLongitude() + "#" + aggregate.getCount(), aggregate);
         }
+        aggregateManager.update(keyed, getMap().getCameraPosition().target);
     }
 
 }
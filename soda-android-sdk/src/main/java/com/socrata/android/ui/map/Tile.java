@@ -0,0 +1,139 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.ui.map;
+
+/**
+ * A slippy map tile, the world split into 2^zoom x 2^zoom tiles in the Web Mercator projection
+ * with x growing eastwards from the antimeridian and y growing southwards from the north edge
+ */
+public final class Tile {
+
+    /**
+     * Max latitude covered by the Web Mercator projection
+     */
+    public static final double MAX_LATITUDE = 85.0511287798;
+
+    private final int zoom;
+
+    private final int x;
+
+    private final int y;
+
+    /**
+     * Constructs a tile
+     *
+     * @param zoom the zoom level
+     * @param x    the column
+     * @param y    the row
+     */
+    public Tile(int zoom, int x, int y) {
+        this.zoom = zoom;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * @param latitude  the latitude
+     * @param longitude the longitude
+     * @param zoom      the zoom level
+     * @return the tile containing a point
+     */
+    public static Tile at(double latitude, double longitude, int zoom) {
+        return new Tile(zoom, column(longitude, zoom), row(latitude, zoom));
+    }
+
+    /**
+     * @return the tile column containing a longitude
+     */
+    static int column(double longitude, int zoom) {
+        int tiles = 1 << zoom;
+        int x = (int) Math.floor((longitude + 180) / 360 * tiles);
+        return Math.max(0, Math.min(tiles - 1, x));
+    }
+
+    /**
+     * @return the tile row containing a latitude
+     */
+    static int row(double latitude, int zoom) {
+        int tiles = 1 << zoom;
+        double radians = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude)));
+        int y = (int) Math.floor((1 - Math.log(Math.tan(radians) + 1 / Math.cos(radians)) / Math.PI) / 2 * tiles);
+        return Math.max(0, Math.min(tiles - 1, y));
+    }
+
+    /**
+     * @return the longitude of a tile column west edge
+     */
+    static double longitude(int x, int zoom) {
+        return (double) x / (1 << zoom) * 360 - 180;
+    }
+
+    /**
+     * @return the latitude of a tile row north edge
+     */
+    static double latitude(int y, int zoom) {
+        double n = Math.PI * (1 - 2.0 * y / (1 << zoom));
+        return Math.toDegrees(Math.atan((Math.exp(n) - Math.exp(-n)) / 2));
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public double getNorth() {
+        return latitude(y, zoom);
+    }
+
+    public double getSouth() {
+        return latitude(y + 1, zoom);
+    }
+
+    public double getWest() {
+        return longitude(x, zoom);
+    }
+
+    public double getEast() {
+        return longitude(x + 1, zoom);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Tile)) {
+            return false;
+        }
+        Tile tile = (Tile) o;
+        return zoom == tile.zoom && x == tile.x && y == tile.y;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * zoom + x) + y;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Tile{%d/%d/%d}", zoom, x, y);
+    }
+
+}
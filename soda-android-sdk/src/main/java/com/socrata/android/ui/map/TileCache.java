@@ -0,0 +1,192 @@
+/*
+ * SODA Android SDK - Socrata, Inc
+ *
+ * Copyright (C) 2013 Socrata, Inc
+ * All rights reserved.
+ *
+ * Developed for Socrata, Inc by:
+ * 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ */
+
+package com.socrata.android.ui.map;
+
+import android.support.v4.util.LruCache;
+
+import com.socrata.android.soql.datatypes.GeoBox;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Spatial cache of viewport query results split into slippy tiles per zoom level.
+ * Only the tiles of a viewport that are not cached yet need to be fetched, adjacent missing tiles in the
+ * same row are merged into a single bounding box. Tiles are evicted least recently used first once the rows
+ * they hold exceed the memory budget.
+ *
+ * @param <Data> the type of data being cached
+ */
+public class TileCache<Data> {
+
+    /**
+     * Deepest zoom level tiles are split into
+     */
+    public static final int MAX_ZOOM = 18;
+
+    /**
+     * Orders tiles by row and then by column
+     */
+    private static final Comparator<Tile> ROW_ORDER = new Comparator<Tile>() {
+        @Override
+        public int compare(Tile lhs, Tile rhs) {
+            return lhs.getY() != rhs.getY() ? lhs.getY() - rhs.getY() : lhs.getX() - rhs.getX();
+        }
+    };
+
+    /**
+     * The cached tiles
+     */
+    private final LruCache<Tile, List<Data>> tiles;
+
+    /**
+     * Constructs a tile cache
+     *
+     * @param maxRows the memory budget as the max number of rows held by all cached tiles
+     */
+    public TileCache(int maxRows) {
+        tiles = new LruCache<Tile, List<Data>>(maxRows) {
+            @Override
+            protected int sizeOf(Tile key, List<Data> value) {
+                return value.size() + 1;
+            }
+        };
+    }
+
+    /**
+     * @param cameraZoom the map camera zoom
+     * @return the tile zoom level for a camera zoom
+     */
+    public static int zoomFor(float cameraZoom) {
+        return Math.max(0, Math.min(MAX_ZOOM, (int) Math.floor(cameraZoom)));
+    }
+
+    /**
+     * Splits a bounding box into the tiles covering it. Boxes crossing the antimeridian, where west is greater
+     * than east, wrap around
+     *
+     * @return the tiles ordered by row and column
+     */
+    public static List<Tile> getTiles(double north, double east, double south, double west, int zoom) {
+        int top = Tile.row(north, zoom);
+        int bottom = Tile.row(south, zoom);
+        int left = Tile.column(west, zoom);
+        int right = Tile.column(east, zoom);
+        int columns = 1 << zoom;
+        List<Tile> covering = new ArrayList<Tile>();
+        for (int y = top; y <= bottom; y++) {
+            int x = left;
+            while (true) {
+                covering.add(new Tile(zoom, x, y));
+                if (x == right) {
+                    break;
+                }
+                x = (x + 1) % columns;
+            }
+        }
+        return covering;
+    }
+
+    /**
+     * Merges tiles into runs of adjacent tiles in the same row
+     *
+     * @param tiles the tiles
+     * @return the runs, each one ordered by column
+     */
+    public static List<List<Tile>> mergeRuns(List<Tile> tiles) {
+        List<Tile> sorted = new ArrayList<Tile>(tiles);
+        Collections.sort(sorted, ROW_ORDER);
+        List<List<Tile>> runs = new ArrayList<List<Tile>>();
+        List<Tile> run = null;
+        Tile previous = null;
+        for (Tile tile : sorted) {
+            if (previous == null || previous.getY() != tile.getY() || previous.getX() + 1 != tile.getX()) {
+                run = new ArrayList<Tile>();
+                runs.add(run);
+            }
+            run.add(tile);
+            previous = tile;
+        }
+        return runs;
+    }
+
+    /**
+     * Splits a run in two halves so each one can be queried on its own
+     *
+     * @param run adjacent tiles in the same row ordered by column with at least two tiles
+     * @return the two halves of the run
+     */
+    public static List<List<Tile>> splitRun(List<Tile> run) {
+        int middle = run.size() / 2;
+        List<List<Tile>> halves = new ArrayList<List<Tile>>();
+        halves.add(new ArrayList<Tile>(run.subList(0, middle)));
+        halves.add(new ArrayList<Tile>(run.subList(middle, run.size())));
+        return halves;
+    }
+
+    /**
+     * @param rowCount the number of rows returned for a query
+     * @param limit    the limit of the query or null if it has none
+     * @return whether the query may have matched more rows than it returned, so its results can't be cached as
+     *         the full contents of its tiles
+     */
+    public static boolean isTruncated(int rowCount, Integer limit) {
+        return limit != null && rowCount >= limit;
+    }
+
+    /**
+     * @param run adjacent tiles in the same row ordered by column
+     * @return the bounding box of a run
+     */
+    public static GeoBox toGeoBox(List<Tile> run) {
+        Tile first = run.get(0);
+        Tile last = run.get(run.size() - 1);
+        return new GeoBox(first.getNorth(), last.getEast(), first.getSouth(), first.getWest());
+    }
+
+    /**
+     * @param tile the tile
+     * @return the cached rows of a tile or null if it is not cached
+     */
+    public List<Data> get(Tile tile) {
+        return tiles.get(tile);
+    }
+
+    /**
+     * @param tile the tile
+     * @return whether the tile is cached
+     */
+    public boolean contains(Tile tile) {
+        return tiles.get(tile) != null;
+    }
+
+    /**
+     * Caches the rows of a tile
+     *
+     * @param tile the tile
+     * @param rows the rows inside the tile
+     */
+    public void put(Tile tile, List<Data> rows) {
+        tiles.put(tile, rows);
+    }
+
+    /**
+     * Evicts all tiles
+     */
+    public void clear() {
+        tiles.evictAll();
+    }
+
+}